@@ -1,6 +1,7 @@
 plugins {
     id("org.openrewrite.build.recipe-library") version "latest.release"
     id("org.openrewrite.build.moderne-source-available-license") version "latest.release"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.openrewrite.recipe"
@@ -55,6 +56,47 @@ dependencies {
     implementation("org.openrewrite.recipe:rewrite-java-dependencies:$rewriteVersion")
     implementation("org.openrewrite.recipe:rewrite-static-analysis:$rewriteVersion")
 
+    testCompileOnly("org.projectlombok:lombok:latest.release")
+    testAnnotationProcessor("org.projectlombok:lombok:latest.release")
+
     testImplementation("org.openrewrite:rewrite-java-21")
     testImplementation("org.openrewrite:rewrite-test")
+
+    jmh("org.openjdk.jmh:jmh-core:latest.release")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+}
+
+// Java Flight Recorder events only exist from Java 11 on, so the recipes, compiled for Java 8, pick up the one
+// recording the migration phases from a multi-release jar; see `MigrationPhaseEvent`. It is compiled against the
+// interface it implements, rather than kept in step with a copy of it by hand.
+val java11: SourceSet by sourceSets.creating {
+    java.setSrcDirs(listOf("src/main/java11"))
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+dependencies {
+    // For the tests to record the events, which they run on a Java 11 or later runtime
+    testRuntimeOnly(java11.output)
+}
+tasks.named<JavaCompile>(java11.compileJavaTaskName) {
+    options.release.set(11)
+}
+tasks.named<Jar>("jar") {
+    into("META-INF/versions/11") {
+        from(java11.output)
+    }
+    manifest {
+        attributes("Multi-Release" to "true")
+    }
+}
+
+// Run with `./gradlew jmh`, optionally narrowed down as in `./gradlew jmh -Pjmh.includes=CucumberJava8ToJava`
+jmh {
+    // The benchmarks parse their inputs against the type tables the tests use, which ship with the test resources
+    includeTests.set(true)
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+    fork.set(1)
+    warmupIterations.set(2)
+    iterations.set(5)
+    resultFormat.set("JSON")
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GlueShape;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step, hook and type definition lambdas, and a few step method references, replaced with annotated methods, with and
+ * without the lambdas closing over state of the constructor they are registered in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CucumberJava8ToJavaBenchmark {
+
+    @Param({"1", "50"})
+    int classes;
+
+    @Param({"4", "40"})
+    int lambdasPerClass;
+
+    @Param({"false", "true"})
+    boolean capturedState;
+
+    Recipe recipe;
+    List<SourceFile> sourceFiles;
+
+    @Setup
+    public void setup() {
+        recipe = RecipeBenchmarks.declarativeRecipe("org.openrewrite.cucumber.jvm.CucumberJava8ToJava");
+        // A step for every other lambda, and the rest split between hooks and type definitions
+        GlueShape shape = GlueShape.DEFAULT
+                .withSteps(lambdasPerClass / 2)
+                .withHooks(lambdasPerClass / 4)
+                .withTypeDefinitions(lambdasPerClass / 4)
+                .withMemberReferences(lambdasPerClass / 10)
+                .withCapturedArguments(capturedState ? 2 : 0)
+                .withCapturedLocals(capturedState ? 2 : 0);
+        sourceFiles = RecipeBenchmarks.parseJava(RecipeBenchmarks.CORPUS.lambdaGlue(classes, shape),
+                "cucumber-java-7", "cucumber-java8-7");
+    }
+
+    @Benchmark
+    public void migrate(Blackhole blackhole) {
+        blackhole.consume(RecipeBenchmarks.run(recipe, sourceFiles));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A `cucumber.properties` file and a Surefire configuration to split the options of, for every module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CucumberOptionsPropertyToIndividualPropertiesBenchmark {
+
+    @Param({"1", "100"})
+    int modules;
+
+    Recipe recipe;
+    List<SourceFile> sourceFiles;
+
+    @Setup
+    public void setup() {
+        recipe = new CucumberOptionsPropertyToIndividualProperties();
+        sourceFiles = RecipeBenchmarks.parseCucumberOptions(modules);
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        blackhole.consume(RecipeBenchmarks.run(recipe, sourceFiles));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GeneratedSource;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.maven.MavenParser;
+import org.openrewrite.properties.PropertiesParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Parses the {@link SyntheticCorpus} the benchmarks run the recipes over against the type tables shipped as
+ * resources, so that no benchmark needs anything from the network.
+ */
+final class RecipeBenchmarks {
+
+    /**
+     * Seeded the same for every benchmark run, for the inputs to be the same from one run to the next.
+     */
+    static final SyntheticCorpus CORPUS = new SyntheticCorpus(42);
+
+    private RecipeBenchmarks() {
+    }
+
+    static Recipe declarativeRecipe(String name) {
+        return Environment.builder()
+                .scanRuntimeClasspath("org.openrewrite.cucumber.jvm")
+                .build()
+                .activateRecipes(name);
+    }
+
+    static List<SourceFile> parseJava(List<GeneratedSource> sources, String... classpath) {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        return JavaParser.fromJavaVersion()
+                .classpathFromResources(ctx, classpath)
+                .build()
+                .parse(ctx, sources.stream().map(GeneratedSource::getText).toArray(String[]::new))
+                .collect(toList());
+    }
+
+    /**
+     * @return a `cucumber.properties` file and a pom passing the options to Surefire for every module
+     */
+    static List<SourceFile> parseCucumberOptions(int modules) {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        for (GeneratedSource properties : CORPUS.cucumberProperties(modules)) {
+            PropertiesParser.builder().build().parse(ctx, properties.getText())
+                    .map(sourceFile -> (SourceFile) sourceFile.withSourcePath(properties.getPath()))
+                    .forEach(sourceFiles::add);
+        }
+        for (GeneratedSource pom : CORPUS.poms(modules)) {
+            MavenParser.builder().build().parse(ctx, pom.getText())
+                    .map(sourceFile -> (SourceFile) sourceFile.withSourcePath(pom.getPath()))
+                    .forEach(sourceFiles::add);
+        }
+        return sourceFiles;
+    }
+
+    static RecipeRun run(Recipe recipe, List<SourceFile> sourceFiles) {
+        return recipe.run(new InMemoryLargeSourceSet(sourceFiles), new InMemoryExecutionContext(Throwable::printStackTrace));
+    }
+}
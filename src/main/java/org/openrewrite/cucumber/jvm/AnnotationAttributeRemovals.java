@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+
+import java.util.*;
+
+/**
+ * Drops the attributes a table maps each annotation type pattern to, from every annotation in a single visit, rather
+ * than a visit for every annotation type and attribute as a `RemoveAnnotationAttribute` each would.
+ */
+class AnnotationAttributeRemovals extends JavaIsoVisitor<ExecutionContext> {
+
+    private final Map<AnnotationMatcher, Set<String>> attributesByAnnotation = new LinkedHashMap<>();
+
+    /**
+     * @param attributesByAnnotationType the attributes to drop, by annotation type pattern as in
+     *                                   `RemoveAnnotationAttribute`, such as `io.cucumber.java..*`
+     */
+    AnnotationAttributeRemovals(Map<String, Set<String>> attributesByAnnotationType) {
+        attributesByAnnotationType.forEach((annotationType, attributes) ->
+                attributesByAnnotation.put(new AnnotationMatcher('@' + annotationType), attributes));
+    }
+
+    @Override
+    public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+        J.Annotation a = super.visitAnnotation(annotation, ctx);
+        if (a.getArguments() == null || a.getArguments().isEmpty()) {
+            return a;
+        }
+        Set<String> attributes = attributesOf(a);
+        if (attributes.isEmpty()) {
+            return a;
+        }
+        List<Expression> arguments = a.getArguments();
+        List<Expression> retained = ListUtils.map(arguments,
+                argument -> attributes.contains(nameOf(argument)) ? null : argument);
+        if (retained == arguments) {
+            return a;
+        }
+        if (retained.isEmpty()) {
+            return a.withArguments(null);
+        }
+        // What was the first argument left in place keeps the prefix of the first argument removed, which is none
+        retained = ListUtils.mapFirst(retained, first -> first.withPrefix(arguments.get(0).getPrefix()));
+        // And a lone `value` left behind goes without its name, as in `@Given("a step")`
+        if (retained.size() == 1 && retained.get(0) instanceof J.Assignment &&
+                "value".equals(nameOf(retained.get(0)))) {
+            J.Assignment value = (J.Assignment) retained.get(0);
+            retained = Collections.singletonList(value.getAssignment().withPrefix(value.getPrefix()));
+        }
+        return a.withArguments(retained);
+    }
+
+    private Set<String> attributesOf(J.Annotation annotation) {
+        Set<String> attributes = new HashSet<>();
+        attributesByAnnotation.forEach((matcher, dropped) -> {
+            if (matcher.matches(annotation)) {
+                attributes.addAll(dropped);
+            }
+        });
+        return attributes;
+    }
+
+    /**
+     * The name of the attribute the argument sets, where an argument without one sets `value`.
+     */
+    private static String nameOf(Expression argument) {
+        if (argument instanceof J.Assignment && ((J.Assignment) argument).getVariable() instanceof J.Identifier) {
+            return ((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName();
+        }
+        return "value";
+    }
+}
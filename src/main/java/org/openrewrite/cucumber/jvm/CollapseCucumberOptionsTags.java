@@ -18,10 +18,11 @@ package org.openrewrite.cucumber.jvm;
 import lombok.Getter;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
@@ -32,6 +33,8 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
 public class CollapseCucumberOptionsTags extends Recipe {
 
     private static final String JUNIT_CUCUMBER_OPTIONS = "io.cucumber.junit.CucumberOptions";
@@ -40,6 +43,8 @@ public class CollapseCucumberOptionsTags extends Recipe {
     private static final AnnotationMatcher JUNIT_MATCHER = new AnnotationMatcher('@' + JUNIT_CUCUMBER_OPTIONS);
     private static final AnnotationMatcher TESTNG_MATCHER = new AnnotationMatcher('@' + TESTNG_CUCUMBER_OPTIONS);
 
+    private final transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     @Getter
     final String displayName = "Collapse `@CucumberOptions` tags into a single tag expression";
 
@@ -53,10 +58,8 @@ public class CollapseCucumberOptionsTags extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
-                Preconditions.or(
-                        new UsesType<>(JUNIT_CUCUMBER_OPTIONS, null),
-                        new UsesType<>(TESTNG_CUCUMBER_OPTIONS, null)),
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.CUCUMBER_OPTIONS),
                 new JavaIsoVisitor<ExecutionContext>() {
                     @Override
                     public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
@@ -18,15 +18,13 @@ package org.openrewrite.cucumber.jvm;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.JavaParser;
-import org.openrewrite.java.JavaTemplate;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.J.ClassDeclaration;
 import org.openrewrite.java.tree.JavaCoordinates;
@@ -35,8 +33,11 @@ import org.openrewrite.java.tree.TypeUtils;
 
 import java.text.RuleBasedCollator;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Comparator;
 
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
 public class CucumberAnnotationToSuite extends Recipe {
 
     private static final String IO_CUCUMBER_JUNIT_PLATFORM_ENGINE_CUCUMBER = "io.cucumber.junit.platform.engine.Cucumber";
@@ -47,6 +48,8 @@ public class CucumberAnnotationToSuite extends Recipe {
     private static final AnnotationMatcher CUCUMBER_ANNOTATION_MATCHER = new AnnotationMatcher(
             "@" + IO_CUCUMBER_JUNIT_PLATFORM_ENGINE_CUCUMBER);
 
+    private final transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     @Getter
     final String displayName = "Replace `@Cucumber` with `@Suite`";
 
@@ -58,8 +61,8 @@ public class CucumberAnnotationToSuite extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
-                new UsesType<>(IO_CUCUMBER_JUNIT_PLATFORM_ENGINE_CUCUMBER, null),
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.JUNIT_PLATFORM_CUCUMBER),
                 new JavaIsoVisitor<ExecutionContext>() {
 
                     @Override
@@ -70,18 +73,16 @@ public class CucumberAnnotationToSuite extends Recipe {
                             return classDecl;
                         }
 
-                        JavaParser.Builder javaParserSupplier = JavaParser.fromJavaVersion().classpathFromResources(ctx, "junit-platform-suite-api-1");
                         JavaType.FullyQualified classFqn = TypeUtils.asFullyQualified(classDecl.getType());
                         if (classFqn != null) {
                             // Add suite annotation and select classpath resource
                             JavaCoordinates coordinates = classDecl.getCoordinates().addAnnotation(Comparator.comparing(
                                     J.Annotation::getSimpleName, new RuleBasedCollator("< SelectClasspathResource")));
-                            classDecl = JavaTemplate.builder("@Suite @SelectClasspathResource(\"#{}\")")
-                                    .contextSensitive()
-                                    .javaParser(javaParserSupplier)
-                                    .imports(SUITE, SELECT_CLASSPATH_RESOURCE)
-                                    .build()
+                            classDecl = TemplateCache.of(ctx)
+                                    .contextSensitive(ctx, "@Suite @SelectClasspathResource(\"#{}\")",
+                                            Arrays.asList(SUITE, SELECT_CLASSPATH_RESOURCE), "junit-platform-suite-api-1")
                                     .apply(getCursor(), coordinates, classFqn.getPackageName().replace('.', '/'));
+                            RecipeRunMetrics.of(ctx).templateApplied();
                             maybeAddImport(SUITE);
                             maybeAddImport(SELECT_CLASSPATH_RESOURCE);
 
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.*;
+
+import java.util.*;
+
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class CucumberApiToIoCucumber extends Recipe {
+
+    /**
+     * Types that did not move along with the rest of their package, so looked up before the package of a type is.
+     */
+    private static final Map<String, String> TYPES;
+
+    /**
+     * `@CucumberOptions` split into a JUnit and a TestNG variant; the TestNG variant is the one a source file running
+     * through a TestNG runner moves to, and the more common JUnit variant the one any other source file moves to.
+     */
+    private static final Map<String, String> TESTNG_TYPES;
+
+    /**
+     * Packages that did move one to one. A package is looked up as a whole before any recursive package it is in, so
+     * `cucumber.api.java8` is never caught by `cucumber.api.java`.
+     */
+    private static final Map<String, String> PACKAGES;
+
+    /**
+     * Recursive, as the ~70 `cucumber.api.java.<lang>` step definition annotation packages moved along.
+     */
+    private static final Set<String> RECURSIVE_PACKAGES = Collections.singleton("cucumber.api.java");
+
+    static {
+        Map<String, String> types = new HashMap<>();
+        Map<String, String> testngTypes = new HashMap<>();
+        Map<String, String> packages = new HashMap<>();
+        types.put("cucumber.api.java.ObjectFactory", "io.cucumber.core.backend.ObjectFactory");
+        types.put("cucumber.api.event.EventListener", "io.cucumber.plugin.EventListener");
+        types.put("cucumber.api.event.ConcurrentEventListener", "io.cucumber.plugin.ConcurrentEventListener");
+        types.put("cucumber.api.event.CanonicalEventOrder", "io.cucumber.core.plugin.CanonicalEventOrder");
+        types.put("cucumber.api.formatter.AnsiEscapes", "io.cucumber.core.plugin.AnsiEscapes");
+        types.put("cucumber.api.formatter.ColorAware", "io.cucumber.plugin.ColorAware");
+        types.put("cucumber.api.formatter.NiceAppendable", "io.cucumber.core.plugin.NiceAppendable");
+        types.put("cucumber.api.formatter.StrictAware", "io.cucumber.plugin.StrictAware");
+        types.put("cucumber.api.Argument", "io.cucumber.plugin.event.Argument");
+        types.put("cucumber.api.CucumberOptions", "io.cucumber.junit.CucumberOptions");
+        types.put("cucumber.api.DataTable", "io.cucumber.datatable.DataTable");
+        types.put("cucumber.api.HookTestStep", "io.cucumber.plugin.event.HookTestStep");
+        types.put("cucumber.api.HookType", "io.cucumber.plugin.event.HookType");
+        types.put("cucumber.api.Pending", "io.cucumber.core.backend.Pending");
+        types.put("cucumber.api.PendingException", "io.cucumber.java.PendingException");
+        types.put("cucumber.api.PickleStepTestStep", "io.cucumber.plugin.event.PickleStepTestStep");
+        types.put("cucumber.api.Plugin", "io.cucumber.plugin.Plugin");
+        types.put("cucumber.api.Result", "io.cucumber.plugin.event.Result");
+        types.put("cucumber.api.Scenario", "io.cucumber.java.Scenario");
+        types.put("cucumber.api.SnippetType", "io.cucumber.junit.CucumberOptions$SnippetType");
+        types.put("cucumber.api.SummaryPrinter", "io.cucumber.plugin.SummaryPrinter");
+        types.put("cucumber.api.TestCase", "io.cucumber.plugin.event.TestCase");
+        types.put("cucumber.api.TestStep", "io.cucumber.plugin.event.TestStep");
+        types.put("cucumber.api.Transpose", "io.cucumber.java.Transpose");
+        types.put("cucumber.api.TypeRegistry", "io.cucumber.core.api.TypeRegistry");
+        types.put("cucumber.api.TypeRegistryConfigurer", "io.cucumber.core.api.TypeRegistryConfigurer");
+        types.put("cucumber.api.cli.Main", "io.cucumber.core.cli.Main");
+
+        testngTypes.put("cucumber.api.CucumberOptions", "io.cucumber.testng.CucumberOptions");
+        testngTypes.put("cucumber.api.SnippetType", "io.cucumber.testng.CucumberOptions$SnippetType");
+
+        // The remaining `cucumber.api.event` types all moved to `io.cucumber.plugin.event`
+        packages.put("cucumber.api.event", "io.cucumber.plugin.event");
+        packages.put("cucumber.api.java8", "io.cucumber.java8");
+        packages.put("cucumber.api.java", "io.cucumber.java");
+        packages.put("cucumber.api.junit", "io.cucumber.junit");
+        packages.put("cucumber.api.testng", "io.cucumber.testng");
+        TYPES = Collections.unmodifiableMap(types);
+        TESTNG_TYPES = Collections.unmodifiableMap(testngTypes);
+        PACKAGES = Collections.unmodifiableMap(packages);
+    }
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
+    String displayName = "Migrate `cucumber.api` to `io.cucumber`";
+
+    String description = "Cucumber-JVM 5.0.0 moved the `cucumber.api` types to `io.cucumber`, but not as a single " +
+            "package rename: types were spread over `io.cucumber.java`, `io.cucumber.junit`, `io.cucumber.testng`, " +
+            "`io.cucumber.plugin` and `io.cucumber.core`. This recipe maps each `cucumber.api` type onto the package " +
+            "it actually moved to.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.CUCUMBER_API),
+                new JavaVisitor<ExecutionContext>() {
+                    @Override
+                    public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+                        if (!(tree instanceof JavaSourceFile)) {
+                            return super.visit(tree, ctx);
+                        }
+                        return new TypeMapping(isTestNg((JavaSourceFile) tree)).visit(tree, ctx);
+                    }
+                });
+    }
+
+    /**
+     * As in the `*..testng.*` type pattern of `CucumberOptionsToTestNgCucumberOptions`, where an import is taken into
+     * account too, as nothing else in the file might name the type it imports.
+     */
+    private static boolean isTestNg(JavaSourceFile sourceFile) {
+        for (JavaType type : sourceFile.getTypesInUse().getTypesInUse()) {
+            if (type instanceof JavaType.FullyQualified &&
+                    ((JavaType.FullyQualified) type).getPackageName().endsWith(".testng")) {
+                return true;
+            }
+        }
+        for (J.Import anImport : sourceFile.getImports()) {
+            if (anImport.getPackageName().endsWith(".testng")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param fullyQualifiedName with a {@code $} separating a nested type from the type it is nested in
+     * @return where the type moved to, or {@code null} where it did not move at all
+     */
+    private static @Nullable String mapped(String fullyQualifiedName, boolean testng) {
+        int nested = fullyQualifiedName.indexOf('$');
+        String topLevel = nested == -1 ? fullyQualifiedName : fullyQualifiedName.substring(0, nested);
+        String newType = testng ? TESTNG_TYPES.get(topLevel) : null;
+        if (newType == null) {
+            newType = TYPES.get(topLevel);
+        }
+        if (newType != null) {
+            return newType + fullyQualifiedName.substring(topLevel.length());
+        }
+        int simpleName = topLevel.lastIndexOf('.');
+        String newPackage = simpleName == -1 ? null : mappedPackage(topLevel.substring(0, simpleName));
+        return newPackage == null ? null : newPackage + fullyQualifiedName.substring(simpleName);
+    }
+
+    private static @Nullable String mappedPackage(String packageName) {
+        String newPackage = PACKAGES.get(packageName);
+        if (newPackage != null) {
+            return newPackage;
+        }
+        for (int dot = packageName.lastIndexOf('.'); dot > 0; dot = packageName.lastIndexOf('.', dot - 1)) {
+            String parent = packageName.substring(0, dot);
+            if (RECURSIVE_PACKAGES.contains(parent)) {
+                return PACKAGES.get(parent) + packageName.substring(dot);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps every `cucumber.api` type a source file names in the one visit of it: the type attribution throughout,
+     * any name written out in full, and each import in place, after which imports mapped onto the same type are
+     * only kept once.
+     */
+    @RequiredArgsConstructor
+    private static class TypeMapping extends JavaVisitor<ExecutionContext> {
+
+        private final boolean testng;
+
+        /**
+         * Each type mapped so far, such that a type named all over the file is only mapped once, and every name of it
+         * is attributed the one type.
+         */
+        private final Map<JavaType, JavaType> mappedTypes = new IdentityHashMap<>();
+
+        @Override
+        public J visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            J.CompilationUnit c = (J.CompilationUnit) super.visitCompilationUnit(cu, ctx);
+            Set<String> imported = new HashSet<>();
+            return c.withImports(ListUtils.flatMap(c.getImports(), anImport -> {
+                List<J.Import> imports = new ArrayList<>();
+                for (J.Import i : starImported(anImport, cu.getTypesInUse().getTypesInUse())) {
+                    if (imported.add((i.isStatic() ? "static " : "") + name(i.getQualid()))) {
+                        imports.add(i);
+                    }
+                }
+                return imports;
+            }));
+        }
+
+        /**
+         * A type imported through a package that did not move as a whole moves on its own, so it is imported on its
+         * own, and the package only kept imported as long as any type of it in use is left where it was.
+         *
+         * @return the imports taking the place of the import
+         */
+        private List<J.Import> starImported(J.Import anImport, Collection<JavaType> typesInUse) {
+            if (anImport.isStatic() || !"*".equals(anImport.getQualid().getSimpleName()) ||
+                    mappedPackage(anImport.getPackageName()) != null) {
+                return Collections.singletonList(anImport);
+            }
+            Set<String> newTypes = new TreeSet<>();
+            boolean packageStillUsed = false;
+            for (JavaType type : typesInUse) {
+                if (type instanceof JavaType.FullyQualified &&
+                        ((JavaType.FullyQualified) type).getOwningClass() == null &&
+                        anImport.getPackageName().equals(((JavaType.FullyQualified) type).getPackageName())) {
+                    String newType = mapped(((JavaType.FullyQualified) type).getFullyQualifiedName(), testng);
+                    if (newType == null) {
+                        packageStillUsed = true;
+                    } else {
+                        newTypes.add(newType);
+                    }
+                }
+            }
+            if (newTypes.isEmpty()) {
+                return Collections.singletonList(anImport);
+            }
+            List<J.Import> imports = new ArrayList<>();
+            if (packageStillUsed) {
+                imports.add(anImport);
+            }
+            for (String newType : newTypes) {
+                J.FieldAccess qualid = TypeTree.build(newType.replace('$', '.'));
+                imports.add(anImport
+                        .withId(Tree.randomId())
+                        .withPrefix(imports.isEmpty() ? anImport.getPrefix() : Space.format("\n"))
+                        .withQualid(qualid
+                                .withPrefix(anImport.getQualid().getPrefix())
+                                .withType(JavaType.ShallowClass.build(newType))));
+            }
+            return imports;
+        }
+
+        @Override
+        public J visitPackage(J.Package pkg, ExecutionContext ctx) {
+            return pkg;
+        }
+
+        @Override
+        public J visitImport(J.Import anImport, ExecutionContext ctx) {
+            J.FieldAccess qualid = anImport.getQualid();
+            String newName;
+            if ("*".equals(qualid.getSimpleName())) {
+                String newPackage = anImport.isStatic() ? mapped(anImport.getTypeName(), testng) :
+                        mappedPackage(anImport.getPackageName());
+                newName = newPackage == null ? null : newPackage + ".*";
+            } else if (anImport.isStatic()) {
+                String newType = mapped(anImport.getTypeName(), testng);
+                newName = newType == null ? null : newType + '.' + qualid.getSimpleName();
+            } else {
+                newName = mapped(anImport.getTypeName(), testng);
+            }
+            if (newName == null) {
+                return anImport;
+            }
+            J.FieldAccess newQualid = TypeTree.build(newName.replace('$', '.'));
+            return anImport.withQualid(newQualid
+                    .withPrefix(qualid.getPrefix())
+                    .withType(visitType(qualid.getType(), ctx)));
+        }
+
+        @Override
+        public J visitFieldAccess(J.FieldAccess fieldAccess, ExecutionContext ctx) {
+            // A type written out in full, as in `cucumber.api.Scenario scenario`
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(fieldAccess.getType());
+            if (type != null && type.getFullyQualifiedName().replace('$', '.').equals(name(fieldAccess))) {
+                String newType = mapped(type.getFullyQualifiedName(), testng);
+                if (newType != null) {
+                    J.FieldAccess newName = TypeTree.build(newType.replace('$', '.'));
+                    return newName
+                            .withPrefix(fieldAccess.getPrefix())
+                            .withMarkers(fieldAccess.getMarkers())
+                            .withType(visitType(type, ctx));
+                }
+            }
+            return super.visitFieldAccess(fieldAccess, ctx);
+        }
+
+        @Override
+        public @Nullable JavaType visitType(@Nullable JavaType javaType, ExecutionContext ctx) {
+            if (javaType == null) {
+                return null;
+            }
+            JavaType mappedType = mappedTypes.get(javaType);
+            if (mappedType == null) {
+                mappedType = map(javaType, ctx);
+                mappedTypes.put(javaType, mappedType);
+            }
+            return mappedType;
+        }
+
+        /**
+         * Down to the types a type is made up of, but not into the members and supertypes of a class, which are left
+         * as they are, as a {@link org.openrewrite.java.ChangeType} would.
+         */
+        private JavaType map(JavaType type, ExecutionContext ctx) {
+            if (type instanceof JavaType.Class) {
+                String newType = mapped(((JavaType.Class) type).getFullyQualifiedName(), testng);
+                return newType == null ? type : ((JavaType.Class) type).withFullyQualifiedName(newType);
+            }
+            if (type instanceof JavaType.Parameterized) {
+                JavaType.Parameterized parameterized = (JavaType.Parameterized) type;
+                return parameterized
+                        .withType((JavaType.FullyQualified) visitType(parameterized.getType(), ctx))
+                        .withTypeParameters(ListUtils.map(parameterized.getTypeParameters(),
+                                typeParameter -> visitType(typeParameter, ctx)));
+            }
+            if (type instanceof JavaType.Array) {
+                JavaType.Array array = (JavaType.Array) type;
+                return array.withElemType(visitType(array.getElemType(), ctx));
+            }
+            if (type instanceof JavaType.Method) {
+                JavaType.Method method = (JavaType.Method) type;
+                return method
+                        .withDeclaringType((JavaType.FullyQualified) visitType(method.getDeclaringType(), ctx))
+                        .withReturnType(visitType(method.getReturnType(), ctx))
+                        .withParameterTypes(ListUtils.map(method.getParameterTypes(),
+                                parameterType -> visitType(parameterType, ctx)));
+            }
+            if (type instanceof JavaType.Variable) {
+                JavaType.Variable variable = (JavaType.Variable) type;
+                return variable
+                        .withOwner(visitType(variable.getOwner(), ctx))
+                        .withType(visitType(variable.getType(), ctx));
+            }
+            return type;
+        }
+
+        /**
+         * @return the name as written, or {@code null} where it is not made up of names alone
+         */
+        private static @Nullable String name(Expression expression) {
+            if (expression instanceof J.Identifier) {
+                return ((J.Identifier) expression).getSimpleName();
+            }
+            if (expression instanceof J.FieldAccess) {
+                String target = name(((J.FieldAccess) expression).getTarget());
+                return target == null ? null : target + '.' + ((J.FieldAccess) expression).getSimpleName();
+            }
+            return null;
+        }
+    }
+}
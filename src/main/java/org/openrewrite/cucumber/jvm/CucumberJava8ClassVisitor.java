@@ -16,11 +16,12 @@
 package org.openrewrite.cucumber.jvm;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.JavaParser;
 import org.openrewrite.java.JavaTemplate;
 import org.openrewrite.java.JavaVisitor;
 import org.openrewrite.java.tree.*;
@@ -32,7 +33,6 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 
 @RequiredArgsConstructor
@@ -46,27 +46,17 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
     private final JavaType.FullyQualified stepDefinitionsClass;
 
     /**
-     * Identifies the constructor, or occasionally method, the lambda was declared in, as that is where any state
-     * the lambda closed over is declared, and what is left empty once the lambda has been hoisted out of it.
+     * Every registration of the class to migrate, in the order they were made in, so that all of them are replaced
+     * in this one visit of the class rather than in a visit of the class each.
      */
-    private final @Nullable UUID glueDeclarationId;
-
-    private final List<String> replacementImports;
+    private final List<GlueRegistration> registrations;
 
     /**
-     * The types of the parameters the new method declares, in order, for as far as they are known; like
-     * {@link #returnType}, a type the project itself declares comes back from the template unattributed.
+     * The class as it was before its registrations were removed, to put them back from once the budget runs out.
      */
-    private final List<JavaType> parameterTypes;
+    private final J.ClassDeclaration original;
 
-    private final String template;
-    private final Object[] templateParameters;
-
-    /**
-     * The template is parsed with only Cucumber on its classpath, so a return type declared by the project itself
-     * comes back unattributed.
-     */
-    private final @Nullable JavaType returnType;
+    private final MigrationBudget budget;
 
     @Override
     public J.@Nullable ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, ExecutionContext ctx) {
@@ -76,20 +66,64 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
             // any modifications
             return classDeclaration;
         }
+        if (budget.isExceeded()) {
+            return abandon(classDeclaration, ctx);
+        }
 
         // Remove implement of Java8 interfaces & imports; return retained
         List<TypeTree> retained = filterImplementingInterfaces(classDeclaration);
 
-        // Import Given/When/Then or Before/After, and Scenario, as applicable
-        replacementImports.forEach(this::maybeAddImport);
+        // Import Given/When/Then or Before/After, and Scenario, as applicable; a null id stands for glue registered
+        // outside any method, which falls back to the sole constructor all the same
+        Set<@Nullable UUID> glueDeclarationIds = new LinkedHashSet<>();
+        for (GlueRegistration registration : registrations) {
+            registration.getReplacementImports().forEach(this::maybeAddImport);
+            glueDeclarationIds.add(registration.getGlueDeclarationId());
+        }
 
-        // Remove the glue constructor if the migrated lambdas were all it held
+        // Add the new methods one after the other, each placed after the one added before it
+        TemplateCache templates = TemplateCache.of(ctx);
+        RecipeRunMetrics metrics = RecipeRunMetrics.of(ctx);
+        J.ClassDeclaration c = classDeclaration;
+        String className = stepDefinitionsClass.getFullyQualifiedName();
+        MigrationPhaseEvent templateApplication =
+                MigrationPhaseEvent.start(MigrationPhaseEvent.TEMPLATE_APPLICATION, className);
+        int templatesApplied = 0;
+        for (GlueRegistration registration : registrations) {
+            JavaTemplate template = registration.isContextSensitive() ?
+                    templates.contextSensitive(ctx, registration.getTemplate(), registration.getReplacementImports(),
+                            "cucumber-java-7", "cucumber-java8-7", "datatable") :
+                    templates.contextFree(ctx, registration.getTemplate(), registration.getReplacementImports(),
+                            "cucumber-java-7", "cucumber-java8-7", "datatable");
+            J.ClassDeclaration applied = template.apply(updateCursor(c), coordinatesForNewMethod(c.getBody()),
+                    registration.getTemplateParameters());
+            metrics.templateApplied();
+            MigrationPhaseEvent retype = MigrationPhaseEvent.start(MigrationPhaseEvent.RETYPE_NEW_METHOD, className);
+            c = retypeNewMethod(c, applied, registration);
+            retype.end(registration.getParameterTypes().size() + (registration.getReturnType() == null ? 0 : 1));
+            // Once the last template is applied, what is left to do is no reason to give up on it all
+            if (++templatesApplied < registrations.size() && budget.isExceeded()) {
+                templateApplication.end(templatesApplied);
+                return abandon(classDeclaration, ctx);
+            }
+        }
+        templateApplication.end(registrations.size());
+        Set<UUID> newMethodIds = newMethodIds(classDeclaration, c);
         doAfterVisit(new JavaIsoVisitor<ExecutionContext>() {
 
             @Override
             public J.@Nullable MethodDeclaration visitMethodDeclaration(J.MethodDeclaration md, ExecutionContext ctx) {
+                if (newMethodIds.contains(md.getId())) {
+                    // Remove nested braces from lambda body block inserted into new method, and unnecessary throws
+                    // from templates that maybe-throw-exceptions, leaving any code not generated here as it was
+                    Cursor parent = getCursor().getParentOrThrow();
+                    J.MethodDeclaration m = (J.MethodDeclaration) new RemoveUnneededBlock().getVisitor()
+                            .visitNonNull(md, ctx, parent);
+                    return (J.MethodDeclaration) new UnnecessaryThrows().getVisitor().visitNonNull(m, ctx, parent);
+                }
                 J.MethodDeclaration methodDeclaration = super.visitMethodDeclaration(md, ctx);
-                if (methodDeclaration.isConstructor() && methodDeclaration.getId().equals(glueDeclarationId) &&
+                // Remove the glue constructor if the migrated lambdas were all it held
+                if (methodDeclaration.isConstructor() && glueDeclarationIds.contains(methodDeclaration.getId()) &&
                         (methodDeclaration.getBody() == null ||
                                 methodDeclaration.getBody().getStatements().isEmpty())) {
                     // noinspection DataFlowIssue
@@ -99,28 +133,72 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
             }
         });
 
-        // Remove nested braces from lambda body block inserted into new method
-        doAfterVisit(new RemoveUnneededBlock().getVisitor());
-
-        // Remove unnecessary throws from templates that maybe-throw-exceptions
-        doAfterVisit(new UnnecessaryThrows().getVisitor());
-
-        // Update implements & add new method
-        J.ClassDeclaration applied = JavaTemplate.builder(template)
-                .contextSensitive()
-                .javaParser(
-                        JavaParser.fromJavaVersion()
-                                .classpathFromResources(ctx, "cucumber-java-7", "cucumber-java8-7", "datatable"))
-                .imports(replacementImports.toArray(new String[0]))
-                .build().apply(getCursor(), coordinatesForNewMethod(classDeclaration.getBody()), templateParameters);
-        return retainGlueDeclarationState(retypeNewMethod(classDeclaration, applied).withImplements(retained), ctx);
+        // Update implements, and hold on to the state of each declaration the lambdas were moved out of
+        c = c.withImplements(retained);
+        MigrationPhaseEvent glueDeclarationState =
+                MigrationPhaseEvent.start(MigrationPhaseEvent.GLUE_DECLARATION_STATE, className);
+        for (@Nullable UUID glueDeclarationId : glueDeclarationIds) {
+            c = retainGlueDeclarationState(c, glueDeclarationId, ctx);
+        }
+        glueDeclarationState.end(glueDeclarationIds.size());
+        return c;
+    }
+
+    /**
+     * Leaves the class as it was, registrations and all, rather than migrate it halfway; the imports already queued
+     * are only added where referenced, which they no longer are. The classes nested in it are no part of that, each
+     * having been migrated, or abandoned and marked, on a budget of its own already, so those are kept as they are
+     * now rather than as they were.
+     *
+     * @param current the class as it is now, its registrations removed
+     */
+    private J.ClassDeclaration abandon(J.ClassDeclaration current, ExecutionContext ctx) {
+        RecipeRunMetrics.of(ctx).lambdaGlueAbandoned(registrations.size());
+        Map<UUID, J.ClassDeclaration> nestedClasses = new HashMap<>();
+        new JavaIsoVisitor<Map<UUID, J.ClassDeclaration>>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, Map<UUID, J.ClassDeclaration> p) {
+                if (cd != current) {
+                    p.put(cd.getId(), cd);
+                    return cd;
+                }
+                return super.visitClassDeclaration(cd, p);
+            }
+        }.visit(current, nestedClasses);
+        J.ClassDeclaration restored = (J.ClassDeclaration) new JavaIsoVisitor<Map<UUID, J.ClassDeclaration>>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, Map<UUID, J.ClassDeclaration> p) {
+                J.ClassDeclaration nested = cd == original ? null : p.get(cd.getId());
+                return nested == null ? super.visitClassDeclaration(cd, p) : nested;
+            }
+        }.visitNonNull(original, nestedClasses, getCursor().getParentOrThrow());
+        return MigrationBudget.markExceeded(restored);
+    }
+
+    /**
+     * @return the methods added to the class since {@code before}, being the only methods the post-migration cleanup
+     * is to touch
+     */
+    private static Set<UUID> newMethodIds(J.ClassDeclaration before, J.ClassDeclaration after) {
+        Set<UUID> existing = new HashSet<>();
+        for (Statement statement : before.getBody().getStatements()) {
+            existing.add(statement.getId());
+        }
+        Set<UUID> added = new HashSet<>();
+        for (Statement statement : after.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration && !existing.contains(statement.getId())) {
+                added.add(statement.getId());
+            }
+        }
+        return added;
     }
 
     /**
      * Found by id rather than by position, as {@code coordinatesForNewMethod} does not always append.
      */
-    private J.ClassDeclaration retypeNewMethod(J.ClassDeclaration before, J.ClassDeclaration after) {
-        if (returnType == null && parameterTypes.isEmpty()) {
+    private static J.ClassDeclaration retypeNewMethod(J.ClassDeclaration before, J.ClassDeclaration after,
+            GlueRegistration registration) {
+        if (registration.getReturnType() == null && registration.getParameterTypes().isEmpty()) {
             return after;
         }
         Set<UUID> existing = new HashSet<>();
@@ -129,10 +207,12 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
         }
         return after.withBody(after.getBody().withStatements(ListUtils.map(after.getBody().getStatements(),
                 statement -> existing.contains(statement.getId()) || !(statement instanceof J.MethodDeclaration) ?
-                        statement : retypeNewMethod((J.MethodDeclaration) statement))));
+                        statement : retypeNewMethod((J.MethodDeclaration) statement, registration)));
     }
 
-    private J.MethodDeclaration retypeNewMethod(J.MethodDeclaration method) {
+    private static J.MethodDeclaration retypeNewMethod(J.MethodDeclaration method, GlueRegistration registration) {
+        List<JavaType> parameterTypes = registration.getParameterTypes();
+        @Nullable JavaType returnType = registration.getReturnType();
         J.MethodDeclaration retyped = parameterTypes.isEmpty() ? method :
                 method.withParameters(ListUtils.map(method.getParameters(), (i, parameter) -> {
                     if (!(parameter instanceof J.VariableDeclarations)) {
@@ -171,7 +251,8 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
      * how `cucumber-java8` glue shares state. Those are out of scope in the methods the lambda bodies now live in,
      * so hold each one in a field instead.
      */
-    private J.ClassDeclaration retainGlueDeclarationState(J.ClassDeclaration classDeclaration, ExecutionContext ctx) {
+    private J.ClassDeclaration retainGlueDeclarationState(J.ClassDeclaration classDeclaration,
+            @Nullable UUID glueDeclarationId, ExecutionContext ctx) {
         J.MethodDeclaration glueDeclaration = methodById(classDeclaration, glueDeclarationId);
         // Fall back to the only constructor where the lambdas were declared in a method called from it, as that is
         // still where any injected collaborators they use are declared
@@ -198,7 +279,7 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
                 }
                 String name = argument.getVariables().get(0).getSimpleName();
                 if (!namesTaken.add(name)) {
-                    // Already retained on an earlier pass over this same class, or taken by a field declared here
+                    // Already retained for another glue declaration in this same class, or taken by a field declared here
                     continue;
                 }
                 fields.append(String.format("%s %s %s;%n", modifiers, fieldType(argument), name));
@@ -206,12 +287,10 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
             }
         }
 
-        Set<String> capturedNames = glueDeclaration == null ? emptySet() :
-                namesUsedByMigratedMethods(classDeclaration, glueDeclaration);
+        GlueDeclarationScope scope = GlueDeclarationScope.of(classDeclaration, glueDeclaration);
         List<String> promoted = new ArrayList<>();
-        boolean anyDeclined = glueDeclaration != null &&
-                capturedFromNestedScope(glueDeclaration, capturedNames, fieldNames);
-        for (J.VariableDeclarations local : capturedLocalVariables(glueDeclaration, capturedNames)) {
+        boolean anyDeclined = scope.capturedFromNestedScope(fieldNames);
+        for (J.VariableDeclarations local : scope.capturedLocalVariables()) {
             String name = local.getVariables().get(0).getSimpleName();
             if (canBecomeField(local) && namesTaken.add(name)) {
                 fields.append(String.format("private %s %s;%n", fieldType(local), name));
@@ -227,6 +306,7 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
                     .contextSensitive()
                     .build()
                     .apply(updateCursor(c), c.getBody().getCoordinates().firstStatement());
+            RecipeRunMetrics.of(ctx).templateApplied();
         }
         if (assignments.length() > 0) {
             J.MethodDeclaration reboundConstructor = sameDeclaration(c, constructor);
@@ -237,6 +317,7 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
                         .contextSensitive()
                         .build()
                         .apply(updateCursor(c), reboundConstructor.getBody().getCoordinates().lastStatement());
+                RecipeRunMetrics.of(ctx).templateApplied();
             }
         }
         if (!promoted.isEmpty()) {
@@ -331,6 +412,7 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
                     return super.visitVariableDeclarations(vd, ctx);
                 }
                 J.VariableDeclarations.NamedVariable variable = vd.getVariables().get(0);
+                RecipeRunMetrics.of(ctx).templateApplied();
                 return JavaTemplate.builder(String.format("%s = #{any()};", variable.getSimpleName()))
                         .contextSensitive()
                         .build()
@@ -339,130 +421,6 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
         }.visitNonNull(classDeclaration, ctx, getCursor().getParentOrThrow());
     }
 
-    /**
-     * @return the variables declared directly in the glue declaration body that the migrated methods still refer to,
-     * whether or not they can be turned into a field
-     */
-    private static List<J.VariableDeclarations> capturedLocalVariables(J.@Nullable MethodDeclaration glueDeclaration,
-            Set<String> capturedNames) {
-        if (glueDeclaration == null || glueDeclaration.getBody() == null || capturedNames.isEmpty()) {
-            return emptyList();
-        }
-        List<J.VariableDeclarations> captured = new ArrayList<>();
-        for (Statement statement : glueDeclaration.getBody().getStatements()) {
-            if (statement instanceof J.VariableDeclarations &&
-                    ((J.VariableDeclarations) statement).getVariables().stream()
-                            .anyMatch(variable -> capturedNames.contains(variable.getSimpleName()))) {
-                captured.add((J.VariableDeclarations) statement);
-            }
-        }
-        return captured;
-    }
-
-    /**
-     * A variable declared in a scope nested inside the glue declaration, such as the body of an {@code if}, cannot
-     * become a field assigned where it was declared, as that assignment only runs when that scope is entered.
-     *
-     * @return whether a name the migrated methods use is declared in such a scope, leaving nothing for the name to
-     * resolve against once the lambda body has moved out
-     */
-    private static boolean capturedFromNestedScope(J.MethodDeclaration glueDeclaration, Set<String> capturedNames,
-            Set<String> fieldNames) {
-        if (glueDeclaration.getBody() == null || capturedNames.isEmpty()) {
-            return false;
-        }
-        Set<String> declaredInBody = new HashSet<>();
-        for (Statement statement : glueDeclaration.getBody().getStatements()) {
-            if (statement instanceof J.VariableDeclarations) {
-                for (J.VariableDeclarations.NamedVariable variable : ((J.VariableDeclarations) statement).getVariables()) {
-                    declaredInBody.add(variable.getSimpleName());
-                }
-            }
-        }
-        return new JavaIsoVisitor<AtomicBoolean>() {
-
-            @Override
-            public J.Lambda visitLambda(J.Lambda lambda, AtomicBoolean found) {
-                // A lambda yet to migrate is a scope of its own, as is an anonymous class body
-                return lambda;
-            }
-
-            @Override
-            public J.NewClass visitNewClass(J.NewClass newClass, AtomicBoolean found) {
-                return newClass;
-            }
-
-            @Override
-            public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable,
-                    AtomicBoolean found) {
-                String name = variable.getSimpleName();
-                if (capturedNames.contains(name) && !fieldNames.contains(name) && !declaredInBody.contains(name)) {
-                    found.set(true);
-                }
-                return super.visitVariable(variable, found);
-            }
-        }.reduce(glueDeclaration.getBody(), new AtomicBoolean()).get();
-    }
-
-    /**
-     * @return the names the migrated methods use without declaring, which is what a hoisted lambda body closed over
-     */
-    private static Set<String> namesUsedByMigratedMethods(J.ClassDeclaration classDeclaration,
-            J.MethodDeclaration glueDeclaration) {
-        Set<String> used = new HashSet<>();
-        for (Statement statement : classDeclaration.getBody().getStatements()) {
-            if (!(statement instanceof J.MethodDeclaration)) {
-                continue;
-            }
-            J.MethodDeclaration method = (J.MethodDeclaration) statement;
-            if (method.getId().equals(glueDeclaration.getId()) || !isCucumberAnnotated(method)) {
-                continue;
-            }
-            Set<String> referenced = referencedNames(method);
-            referenced.removeAll(declaredNames(method));
-            used.addAll(referenced);
-        }
-        return used;
-    }
-
-    private static Set<String> referencedNames(J.MethodDeclaration method) {
-        return new JavaIsoVisitor<Set<String>>() {
-
-            @Override
-            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, Set<String> names) {
-                // The method name resolves against whatever it is invoked on, so it is no name of its own
-                visit(mi.getSelect(), names);
-                visit(mi.getArguments(), names);
-                return mi;
-            }
-
-            @Override
-            public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, Set<String> names) {
-                // Likewise the name after the dot is a member of what precedes it
-                visit(fieldAccess.getTarget(), names);
-                return fieldAccess;
-            }
-
-            @Override
-            public J.Identifier visitIdentifier(J.Identifier identifier, Set<String> names) {
-                names.add(identifier.getSimpleName());
-                return identifier;
-            }
-        }.reduce(method, new HashSet<>());
-    }
-
-    private static Set<String> declaredNames(J.MethodDeclaration method) {
-        return new JavaIsoVisitor<Set<String>>() {
-
-            @Override
-            public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable,
-                    Set<String> names) {
-                names.add(variable.getSimpleName());
-                return super.visitVariable(variable, names);
-            }
-        }.reduce(method, new HashSet<>());
-    }
-
     /**
      * Only a single variable declared with an explicit type can be swapped for a field assigned in place, as anything
      * else either has no one type to declare, or no one value to assign.
@@ -608,9 +566,49 @@ class CucumberJava8ClassVisitor extends JavaIsoVisitor<ExecutionContext> {
                         .orElseGet(() -> body.getCoordinates().lastStatement()));
     }
 
-    private static boolean isCucumberAnnotated(J.MethodDeclaration method) {
+    static boolean isCucumberAnnotated(J.MethodDeclaration method) {
         return method.getAllAnnotations().stream()
                 .map(annotation -> TypeUtils.asFullyQualified(annotation.getAnnotationType().getType()))
                 .anyMatch(type -> type != null && type.getPackageName().startsWith(IO_CUCUMBER_JAVA));
     }
 }
+
+/**
+ * A single `LambdaGlue` registration, as the annotated method it is replaced with.
+ */
+@Value
+class GlueRegistration {
+
+    /**
+     * Identifies the constructor, or occasionally method, the lambda was declared in, as that is where any state
+     * the lambda closed over is declared, and what is left empty once the lambda has been hoisted out of it.
+     */
+    @Nullable
+    UUID glueDeclarationId;
+
+    List<String> replacementImports;
+
+    /**
+     * The types of the parameters the new method declares, in order, for as far as they are known; like
+     * {@link #returnType}, a type the project itself declares comes back from the template unattributed.
+     */
+    List<JavaType> parameterTypes;
+
+    String template;
+    Object[] templateParameters;
+
+    /**
+     * The template is parsed with only Cucumber on its classpath, so a return type declared by the project itself
+     * comes back unattributed.
+     */
+    @Nullable
+    JavaType returnType;
+
+    /**
+     * Whether the template names a type that only resolves in the context of the class it is added to. Any other
+     * template is parsed on its own, as the lambda body it is handed keeps the attribution it already had, and what
+     * the template itself leaves unattributed is retyped from {@link #parameterTypes} and {@link #returnType}.
+     */
+    boolean contextSensitive;
+
+}
@@ -15,28 +15,39 @@
  */
 package org.openrewrite.cucumber.jvm;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import lombok.With;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
+import org.openrewrite.Option;
 import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.Validated;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType.Primitive;
 import org.openrewrite.marker.SearchResult;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.openrewrite.cucumber.jvm.GlueMethods.declaredMethodNames;
+import static org.openrewrite.cucumber.jvm.GlueMethods.uniqueMethodName;
 
 @EqualsAndHashCode(callSuper = false)
 @Value
@@ -46,9 +57,9 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
     private static final String IO_CUCUMBER_JAVA8_HOOK_BODY = "io.cucumber.java8.HookBody";
     private static final String IO_CUCUMBER_JAVA8_HOOK_NO_ARGS_BODY = "io.cucumber.java8.HookNoArgsBody";
 
-    private static final String HOOK_BODY_DEFINITION = IO_CUCUMBER_JAVA8 +
+    static final String HOOK_BODY_DEFINITION = IO_CUCUMBER_JAVA8 +
             ".LambdaGlue *(.., " + IO_CUCUMBER_JAVA8_HOOK_BODY + ")";
-    private static final String HOOK_NO_ARGS_BODY_DEFINITION = IO_CUCUMBER_JAVA8 +
+    static final String HOOK_NO_ARGS_BODY_DEFINITION = IO_CUCUMBER_JAVA8 +
             ".LambdaGlue *(.., " + IO_CUCUMBER_JAVA8_HOOK_NO_ARGS_BODY + ")";
 
     private static final MethodMatcher HOOK_BODY_DEFINITION_METHOD_MATCHER = new MethodMatcher(
@@ -56,6 +67,18 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
     private static final MethodMatcher HOOK_NO_ARGS_BODY_DEFINITION_METHOD_MATCHER = new MethodMatcher(
             HOOK_NO_ARGS_BODY_DEFINITION);
 
+    private static final String HOOK_DEFINITIONS = "cucumberHookDefinitions";
+
+
+    @Option(displayName = "Class time budget",
+            description = "The time the migration of a single class may take, as an ISO-8601 duration. A class " +
+                    "running over it is left as it was, marked for a manual migration. Unbounded where not given.",
+            example = "PT30S",
+            required = false)
+    @Nullable
+    String classTimeBudget;
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
 
     String displayName = "Replace `cucumber-java8` hook definition with `cucumber-java`";
 
@@ -64,13 +87,26 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
 
     Duration estimatedEffortPerOccurrence = Duration.ofMinutes(10);
 
+    public CucumberJava8HookDefinitionToCucumberJava() {
+        this(null);
+    }
+
+    @JsonCreator
+    public CucumberJava8HookDefinitionToCucumberJava(@Nullable String classTimeBudget) {
+        this.classTimeBudget = classTimeBudget;
+    }
+
+    @Override
+    public Validated<Object> validate() {
+        return super.validate().and(MigrationBudget.validate(classTimeBudget));
+    }
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
-                Preconditions.or(
-                        new UsesMethod<>(HOOK_BODY_DEFINITION, true),
-                        new UsesMethod<>(HOOK_NO_ARGS_BODY_DEFINITION, true))
-                , new JavaVisitor<ExecutionContext>() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                new UsesCucumberJava8(LambdaGlueClassifications.Kind.HOOK_DEFINITION),
+                new LambdaGlueVisitor(MigrationBudget.parse(classTimeBudget),
+                        LambdaGlueClassifications.Kind.HOOK_DEFINITION) {
 
                     @Override
                     public @Nullable J visitMethodInvocation(J.MethodInvocation mi, ExecutionContext ctx) {
@@ -79,45 +115,75 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
                             return methodInvocation;
                         }
 
-                        // Extract arguments passed to method
-                        HookArguments hookArguments = parseHookArguments(methodInvocation);
+                        // Only worked out for a class that registers a hook at all, on the first registration found in
+                        // it, and let go of along with the cursor of the class once its visit ends
+                        Cursor classCursor = getCursor().dropParentUntil(J.ClassDeclaration.class::isInstance);
+                        Map<UUID, HookArguments> hookDefinitions = classCursor.computeMessageIfAbsent(
+                                HOOK_DEFINITIONS, key -> hookDefinitions(classCursor.getValue(),
+                                        LambdaGlueClassifications.of(ctx),
+                                        classCursor.firstEnclosingOrThrow(SourceFile.class).getSourcePath()));
+                        HookArguments hookArguments = hookDefinitions.get(methodInvocation.getId());
                         if (hookArguments == null) {
+                            RecipeRunMetrics.of(ctx).lambdaGlueFlagged();
                             return SearchResult.found(methodInvocation, "TODO Migrate manually");
                         }
 
                         // Add new template method at end of class declaration
-                        J.ClassDeclaration parentClass = getCursor()
-                                .dropParentUntil(J.ClassDeclaration.class::isInstance)
-                                .getValue();
                         J.MethodDeclaration glueDeclaration = getCursor().firstEnclosing(J.MethodDeclaration.class);
-                        doAfterVisit(new CucumberJava8ClassVisitor(
-                                parentClass.getType(),
+                        if (!migrate(methodInvocation, new GlueRegistration(
                                 glueDeclaration == null ? null : glueDeclaration.getId(),
                                 hookArguments.replacementImports(),
                                 emptyList(),
                                 hookArguments.template(),
                                 hookArguments.parameters(),
-                                null));
+                                null,
+                                // A hook takes nothing but the `Scenario` it imports
+                                false), ctx)) {
+                            RecipeRunMetrics.of(ctx).lambdaGlueFlagged();
+                            return SearchResult.found(methodInvocation, "TODO Migrate manually");
+                        }
 
-                        // Remove original method invocation; it's replaced in the above
-                        // visitor
+                        // Remove original method invocation; it's replaced once the visit of the class ends
                         // noinspection DataFlowIssue
                         return null;
                     }
                 });
     }
 
-    private static boolean isHookDefinition(J.MethodInvocation methodInvocation) {
+    static boolean isHookDefinition(J.MethodInvocation methodInvocation) {
         return HOOK_BODY_DEFINITION_METHOD_MATCHER.matches(methodInvocation) ||
                 HOOK_NO_ARGS_BODY_DEFINITION_METHOD_MATCHER.matches(methodInvocation);
     }
 
     /**
-     * @return whether this invocation is a hook definition this recipe replaces with an annotated method, rather
-     * than one it leaves where it is for a manual migration
+     * Names are handed out for the class as a whole, in declaration order, so that two hooks of the same kind, tag
+     * expression and order do not both become a method of the same name.
      */
-    static boolean converts(J.MethodInvocation methodInvocation) {
-        return isHookDefinition(methodInvocation) && parseHookArguments(methodInvocation) != null;
+    private static Map<UUID, HookArguments> hookDefinitions(J.ClassDeclaration classDeclaration,
+            LambdaGlueClassifications classifications, Path sourcePath) {
+        Set<String> methodNames = declaredMethodNames(classDeclaration);
+        Map<UUID, HookArguments> hookDefinitions = new HashMap<>();
+        new JavaIsoVisitor<Integer>() {
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, Integer p) {
+                // A nested class declares its own methods, so its registrations claim no name here
+                return cd.getId().equals(classDeclaration.getId()) ? super.visitClassDeclaration(cd, p) : cd;
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, Integer p) {
+                if (isHookDefinition(mi)) {
+                    HookArguments arguments = classifications.take(mi, sourcePath, null).getHookDefinition();
+                    if (arguments != null) {
+                        hookDefinitions.put(mi.getId(), arguments.withMethodName(
+                                uniqueMethodName(arguments.hookMethodName(), methodNames)));
+                    }
+                }
+                return super.visitMethodInvocation(mi, p);
+            }
+        }.visit(classDeclaration, 0);
+        return hookDefinitions;
     }
 
     /**
@@ -126,7 +192,7 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
      *
      * @return {@code null} where an argument is not one the replacing annotation or method can hold
      */
-    private static @Nullable HookArguments parseHookArguments(J.MethodInvocation methodInvocation) {
+    static @Nullable HookArguments parseHookArguments(J.MethodInvocation methodInvocation) {
         List<Expression> arguments = methodInvocation.getArguments();
         int argumentsSize = arguments.size();
         // Replacement annotations can only handle literals or constants
@@ -166,11 +232,13 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
                                                          boolean takesScenario) {
         if (body instanceof J.Lambda) {
             J.Lambda lambda = (J.Lambda) body;
-            J parameter = lambda.getParameters().getParameters().get(0);
             return new HookArguments(annotationName, null, null,
-                    parameter instanceof J.VariableDeclarations ?
-                            ((J.VariableDeclarations) parameter).getVariables().get(0).getSimpleName() : null,
-                    lambda.getBody());
+                    scenarioName(lambda.getParameters().getParameters()), lambda.getBody(), null);
+        }
+        J.MethodDeclaration anonymousBody = GlueMethods.anonymousBody(body);
+        if (anonymousBody != null) {
+            return new HookArguments(annotationName, null, null,
+                    scenarioName(anonymousBody.getParameters()), anonymousBody.getBody(), null);
         }
         if (!(body instanceof J.MemberReference)) {
             return null;
@@ -185,7 +253,13 @@ public class CucumberJava8HookDefinitionToCucumberJava extends Recipe {
         List<String> parameterNames = MemberReferences.parameterNames(reference, kind, parameterCount);
         return new HookArguments(annotationName, null, null,
                 takesScenario ? parameterNames.get(0) : null,
-                MemberReferences.body(reference, kind, parameterNames));
+                MemberReferences.body(reference, kind, parameterNames), null);
+    }
+
+    private static @Nullable String scenarioName(List<? extends J> declaredParameters) {
+        J parameter = declaredParameters.get(0);
+        return parameter instanceof J.VariableDeclarations ?
+                ((J.VariableDeclarations) parameter).getVariables().get(0).getSimpleName() : null;
     }
 
 }
@@ -215,6 +289,13 @@ class HookArguments {
 
     J body;
 
+    /**
+     * The name claimed for the method among the others of its class, or {@code null} to name it after the hook alone.
+     */
+    @With
+    @Nullable
+    String methodName;
+
     List<String> replacementImports() {
         String annotationImport = String.format("io.cucumber.java.%s", annotationName);
         return scenarioName != null ?
@@ -245,6 +326,10 @@ class HookArguments {
     }
 
     private String formatMethodName() {
+        return methodName != null ? methodName : hookMethodName();
+    }
+
+    String hookMethodName() {
         return String.format("%s%s%s",
                 annotationName
                         .replaceFirst("^Before", "before")
@@ -15,16 +15,18 @@
  */
 package org.openrewrite.cucumber.jvm;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
+import org.openrewrite.Option;
 import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.Validated;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
@@ -33,6 +35,7 @@ import org.openrewrite.marker.SearchResult;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static java.util.Collections.emptyList;
@@ -42,11 +45,21 @@ import static java.util.stream.Collectors.joining;
 @Value
 public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
 
-    private static final String IO_CUCUMBER_JAVA8_STEP_DEFINITION = "io.cucumber.java8.* *(String, ..)";
+    static final String IO_CUCUMBER_JAVA8_STEP_DEFINITION = "io.cucumber.java8.* *(String, ..)";
     private static final String IO_CUCUMBER_JAVA8_STEP_DEFINITION_BODY = "io.cucumber.java8.StepDefinitionBody";
     private static final MethodMatcher STEP_DEFINITION_METHOD_MATCHER = new MethodMatcher(
             IO_CUCUMBER_JAVA8_STEP_DEFINITION);
 
+    @Option(displayName = "Class time budget",
+            description = "The time the migration of a single class may take, as an ISO-8601 duration. A class " +
+                    "running over it is left as it was, marked for a manual migration. Unbounded where not given.",
+            example = "PT30S",
+            required = false)
+    @Nullable
+    String classTimeBudget;
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     String displayName = "Replace `cucumber-java8` step definitions with `cucumber-java`";
 
     String description = "Replace `StepDefinitionBody` methods with `StepDefinitionAnnotations` on new methods with " +
@@ -54,11 +67,26 @@ public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
 
     Duration estimatedEffortPerOccurrence = Duration.ofMinutes(10);
 
+    public CucumberJava8StepDefinitionToCucumberJava() {
+        this(null);
+    }
+
+    @JsonCreator
+    public CucumberJava8StepDefinitionToCucumberJava(@Nullable String classTimeBudget) {
+        this.classTimeBudget = classTimeBudget;
+    }
+
+    @Override
+    public Validated<Object> validate() {
+        return super.validate().and(MigrationBudget.validate(classTimeBudget));
+    }
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
-                new UsesMethod<>(IO_CUCUMBER_JAVA8_STEP_DEFINITION, true),
-                new JavaVisitor<ExecutionContext>() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                new UsesCucumberJava8(LambdaGlueClassifications.Kind.STEP_DEFINITION),
+                new LambdaGlueVisitor(MigrationBudget.parse(classTimeBudget),
+                        LambdaGlueClassifications.Kind.STEP_DEFINITION) {
 
                     @Override
                     public @Nullable J visitMethodInvocation(J.MethodInvocation methodInvocation, ExecutionContext ctx) {
@@ -67,36 +95,40 @@ public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
                             return m;
                         }
 
-                        // Determine step definitions class name
+                        // Annotations require a String literal, and the body a lambda, anonymous class or method
+                        // reference to move
                         J.ClassDeclaration parentClass = getCursor()
                                 .dropParentUntil(J.ClassDeclaration.class::isInstance)
                                 .getValue();
-                        JavaType.FullyQualified parentType = parentClass.getType();
-
-                        // Annotations require a String literal, and the body a lambda or method reference to move
-                        List<String> replacementImports = new ArrayList<>();
-                        StepDefinitionArguments stepArguments = stepDefinitionArguments(m,
-                                parentType == null ? "" : parentType.getPackageName(), replacementImports);
+                        StepDefinitionArguments stepArguments = LambdaGlueClassifications.of(ctx)
+                                .take(m, getCursor().firstEnclosingOrThrow(SourceFile.class).getSourcePath(),
+                                        parentClass.getType())
+                                .getStepDefinition();
                         if (stepArguments == null) {
+                            RecipeRunMetrics.of(ctx).lambdaGlueFlagged();
                             return SearchResult.found(m, "TODO Migrate manually");
                         }
 
-                        replacementImports.add(0, String.format("%s.%s",
+                        List<String> replacementImports = new ArrayList<>();
+                        replacementImports.add(String.format("%s.%s",
                                 m.getMethodType().getDeclaringType().getFullyQualifiedName()
                                         .replace("java8", "java").toLowerCase(),
                                 m.getSimpleName()));
+                        replacementImports.addAll(stepArguments.getParameterImports());
                         J.MethodDeclaration glueDeclaration = getCursor().firstEnclosing(J.MethodDeclaration.class);
-                        doAfterVisit(new CucumberJava8ClassVisitor(
-                                parentType,
+                        if (!migrate(m, new GlueRegistration(
                                 glueDeclaration == null ? null : glueDeclaration.getId(),
                                 replacementImports,
                                 stepArguments.getParameterTypes(),
                                 stepArguments.template(),
                                 stepArguments.parameters(),
-                                null));
+                                null,
+                                stepArguments.isContextSensitive()), ctx)) {
+                            RecipeRunMetrics.of(ctx).lambdaGlueFlagged();
+                            return SearchResult.found(m, "TODO Migrate manually");
+                        }
 
-                        // Remove original method invocation; it's replaced in the above
-                        // visitor
+                        // Remove original method invocation; it's replaced once the visit of the class ends
                         // noinspection DataFlowIssue
                         return null;
                     }
@@ -107,7 +139,7 @@ public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
      * The matcher also catches {@code Scenario.log(String)} and registrations such as
      * {@code DataTableType(String, DataTableEntryDefinitionBody)}; the body taken is what tells a step from those.
      */
-    private static boolean isStepDefinition(J.MethodInvocation methodInvocation) {
+    static boolean isStepDefinition(J.MethodInvocation methodInvocation) {
         if (!STEP_DEFINITION_METHOD_MATCHER.matches(methodInvocation) || methodInvocation.getMethodType() == null) {
             return false;
         }
@@ -117,25 +149,13 @@ public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
     }
 
     /**
-     * @return whether this invocation is a step definition this recipe replaces with an annotated method, rather
-     * than one it leaves where it is for a manual migration
-     */
-    static boolean converts(J.MethodInvocation methodInvocation) {
-        // Only whether the step definition converts is asked here, not what it converts to, so the package the
-        // parameter types are named relative to makes no difference
-        return isStepDefinition(methodInvocation) &&
-                stepDefinitionArguments(methodInvocation, "", new ArrayList<>()) != null;
-    }
-
-    /**
-     * @param replacementImports collects the imports the parameters of the replacing method need, for the types a
-     *                           method reference names nowhere in the file it is migrated in
+     * @param packageName the package of the file the step definition is migrated in, which the parameter types of
+     *                    the replacing method are named relative to
      * @return the arguments to build the annotated method from, or {@code null} where the step definition is one to
      * leave where it is for a manual migration
      */
-    private static @Nullable StepDefinitionArguments stepDefinitionArguments(J.MethodInvocation methodInvocation,
-                                                                             String packageName,
-                                                                             List<String> replacementImports) {
+    static @Nullable StepDefinitionArguments stepDefinitionArguments(J.MethodInvocation methodInvocation,
+                                                                     String packageName) {
         List<Expression> arguments = methodInvocation.getArguments();
         if (arguments.size() < 2 || !(arguments.get(0) instanceof J.Literal)) {
             return null;
@@ -145,8 +165,16 @@ public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
         J.Literal cucumberExpression = (J.Literal) arguments.get(0);
         if (definitionBody instanceof J.Lambda) {
             J.Lambda lambda = (J.Lambda) definitionBody;
+            List<J> lambdaParameters = lambda.getParameters().getParameters();
+            return new StepDefinitionArguments(annotationName, cucumberExpression,
+                    declaredParameters(lambdaParameters), emptyList(), emptyList(), lambda.getBody(),
+                    declaresTypesFromContext(lambdaParameters, emptyList()));
+        }
+        J.MethodDeclaration anonymousBody = GlueMethods.anonymousBody(definitionBody);
+        if (anonymousBody != null) {
             return new StepDefinitionArguments(annotationName, cucumberExpression,
-                    declaredParameters(lambda), emptyList(), lambda.getBody());
+                    declaredParameters(anonymousBody.getParameters()), emptyList(), emptyList(),
+                    anonymousBody.getBody(), declaresTypesFromContext(anonymousBody.getParameters(), emptyList()));
         }
         if (!(definitionBody instanceof J.MemberReference)) {
             return null;
@@ -163,23 +191,47 @@ public class CucumberJava8StepDefinitionToCucumberJava extends Recipe {
         }
         List<String> parameterNames = MemberReferences.parameterNames(reference, kind, parameterTypes.size());
         StringBuilder parameters = new StringBuilder();
+        // The imports the parameters need, for the types a method reference names nowhere in the file it is in
+        List<String> parameterImports = new ArrayList<>();
+        boolean contextSensitive = false;
         for (int i = 0; i < parameterTypes.size(); i++) {
             JavaType.Class parameterType = parameterTypes.get(i);
+            // Each parameter is retyped once added, but that only reaches all of a type named by a single identifier
+            contextSensitive |= parameterType.getOwningClass() != null;
             String parameterTypeImport = requiredImport(parameterType, packageName);
             if (parameterTypeImport != null) {
-                replacementImports.add(parameterTypeImport);
+                parameterImports.add(parameterTypeImport);
             }
             parameters.append(i == 0 ? "" : ", ")
                     .append(typeName(parameterType, packageName)).append(' ').append(parameterNames.get(i));
         }
         return new StepDefinitionArguments(annotationName, cucumberExpression, parameters.toString(),
-                new ArrayList<>(parameterTypes), MemberReferences.body(reference, kind, parameterNames));
+                new ArrayList<>(parameterTypes), parameterImports, MemberReferences.body(reference, kind, parameterNames),
+                contextSensitive);
+    }
+
+    /**
+     * @return whether a parameter the lambda or anonymous class declares names a type that only resolves in the file
+     * it is declared in
+     */
+    private static boolean declaresTypesFromContext(List<? extends J> declaredParameters,
+                                                    Collection<String> imports) {
+        for (J parameter : declaredParameters) {
+            if (parameter instanceof J.VariableDeclarations) {
+                J.VariableDeclarations declaration = (J.VariableDeclarations) parameter;
+                if (declaration.getTypeExpression() == null ||
+                        !GlueMethods.resolvesWithoutContext(declaration.getType(), imports)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    private static String declaredParameters(J.Lambda lambda) {
+    private static String declaredParameters(List<? extends J> declaredParameters) {
         // TODO Type loss here, but my attempts to pass these as J failed:
         // __P__.<java.lang.Object>/*__p0__*/p <error>()
-        return lambda.getParameters().getParameters().stream()
+        return declaredParameters.stream()
                 .filter(J.VariableDeclarations.class::isInstance)
                 .map(J.VariableDeclarations.class::cast)
                 .map(J.VariableDeclarations::toString)
@@ -212,7 +264,9 @@ class StepDefinitionArguments {
     J.Literal cucumberExpression;
     String methodParameters;
     List<JavaType> parameterTypes;
+    List<String> parameterImports;
     J body;
+    boolean contextSensitive;
 
     String template() {
         return "@#{}(#{any()})\npublic void #{}(#{}) throws Exception {\n\t#{any()};\n}";
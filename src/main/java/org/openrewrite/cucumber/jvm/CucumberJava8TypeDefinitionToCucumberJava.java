@@ -15,32 +15,36 @@
  */
 package org.openrewrite.cucumber.jvm;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import lombok.With;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
+import org.openrewrite.Option;
 import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.Validated;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.JavaVisitor;
 import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.marker.SearchResult;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
 import static java.util.Collections.nCopies;
 import static java.util.Collections.singletonList;
 import static org.openrewrite.cucumber.jvm.GlueMethods.PARAMETER_TYPE_IMPORTS;
+import static org.openrewrite.cucumber.jvm.GlueMethods.anonymousBody;
 import static org.openrewrite.cucumber.jvm.GlueMethods.decapitalize;
 import static org.openrewrite.cucumber.jvm.GlueMethods.declaredMethodNames;
 import static org.openrewrite.cucumber.jvm.GlueMethods.fullyQualifiedName;
@@ -62,41 +66,55 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
 
     private static final String TYPE_DEFINITIONS = "cucumberTypeDefinitions";
 
-    private static final List<MethodMatcher> TYPE_DEFINITION_MATCHERS = new ArrayList<>();
+    static final List<MethodMatcher> TYPE_DEFINITION_MATCHERS;
 
     /**
      * None of these are generic, so the lambda only contributes the parameter names; one leaving its types implicit
      * migrates just as well as one spelling them out.
      */
-    private static final Map<String, List<String>> BODY_PARAMETERS = new HashMap<>();
+    private static final Map<String, List<String>> BODY_PARAMETERS;
 
     /**
      * These name no type of their own, being handed the type to convert to at runtime.
      */
-    private static final Set<String> OBJECT_RETURNING_BODIES = new HashSet<>(asList(
+    private static final Set<String> OBJECT_RETURNING_BODIES = Collections.unmodifiableSet(new HashSet<>(asList(
             IO_CUCUMBER_JAVA8 + "DefaultParameterTransformerBody",
             IO_CUCUMBER_JAVA8 + "DefaultDataTableCellTransformerBody",
-            IO_CUCUMBER_JAVA8 + "DefaultDataTableEntryTransformerBody"));
+            IO_CUCUMBER_JAVA8 + "DefaultDataTableEntryTransformerBody")));
 
     static {
+        List<MethodMatcher> typeDefinitionMatchers = new ArrayList<>();
+        Map<String, List<String>> bodyParameters = new HashMap<>();
         for (String typeDefinition : asList(DATA_TABLE_TYPE, PARAMETER_TYPE, DOC_STRING_TYPE,
                 "DefaultParameterTransformer", "DefaultDataTableCellTransformer", "DefaultDataTableEntryTransformer")) {
-            TYPE_DEFINITION_MATCHERS.add(new MethodMatcher(LAMBDA_GLUE + typeDefinition + "(..)"));
+            typeDefinitionMatchers.add(new MethodMatcher(LAMBDA_GLUE + typeDefinition + "(..)"));
         }
 
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DataTableCellDefinitionBody", singletonList("String"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DataTableDefinitionBody", singletonList("DataTable"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DataTableEntryDefinitionBody", singletonList("Map<String, String>"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DataTableRowDefinitionBody", singletonList("List<String>"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DocStringDefinitionBody", singletonList("String"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DefaultParameterTransformerBody", asList("String", "Type"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DefaultDataTableCellTransformerBody", asList("String", "Type"));
-        BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "DefaultDataTableEntryTransformerBody", asList("Map<String, String>", "Type"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DataTableCellDefinitionBody", singletonList("String"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DataTableDefinitionBody", singletonList("DataTable"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DataTableEntryDefinitionBody", singletonList("Map<String, String>"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DataTableRowDefinitionBody", singletonList("List<String>"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DocStringDefinitionBody", singletonList("String"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DefaultParameterTransformerBody", asList("String", "Type"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DefaultDataTableCellTransformerBody", asList("String", "Type"));
+        bodyParameters.put(IO_CUCUMBER_JAVA8 + "DefaultDataTableEntryTransformerBody", asList("Map<String, String>", "Type"));
         for (int arity = 1; arity <= 9; arity++) {
-            BODY_PARAMETERS.put(IO_CUCUMBER_JAVA8 + "ParameterDefinitionBody$A" + arity, nCopies(arity, "String"));
+            bodyParameters.put(IO_CUCUMBER_JAVA8 + "ParameterDefinitionBody$A" + arity, nCopies(arity, "String"));
         }
+        TYPE_DEFINITION_MATCHERS = Collections.unmodifiableList(typeDefinitionMatchers);
+        BODY_PARAMETERS = Collections.unmodifiableMap(bodyParameters);
     }
 
+    @Option(displayName = "Class time budget",
+            description = "The time the migration of a single class may take, as an ISO-8601 duration. A class " +
+                    "running over it is left as it was, marked for a manual migration. Unbounded where not given.",
+            example = "PT30S",
+            required = false)
+    @Nullable
+    String classTimeBudget;
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     String displayName = "Replace `cucumber-java8` type definitions with `cucumber-java`";
 
     String description = "Replace `LambdaGlue` `DataTableType`, `ParameterType`, `DocStringType` and " +
@@ -104,23 +122,26 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
 
     Duration estimatedEffortPerOccurrence = Duration.ofMinutes(10);
 
+    public CucumberJava8TypeDefinitionToCucumberJava() {
+        this(null);
+    }
+
+    @JsonCreator
+    public CucumberJava8TypeDefinitionToCucumberJava(@Nullable String classTimeBudget) {
+        this.classTimeBudget = classTimeBudget;
+    }
+
     @Override
-    public TreeVisitor<?, ExecutionContext> getVisitor() {
-        TreeVisitor<?, ExecutionContext> usesTypeDefinition = null;
-        for (MethodMatcher matcher : TYPE_DEFINITION_MATCHERS) {
-            UsesMethod<ExecutionContext> usesMethod = new UsesMethod<>(matcher);
-            usesTypeDefinition = usesTypeDefinition == null ? usesMethod :
-                    Preconditions.or(usesTypeDefinition, usesMethod);
-        }
-        return Preconditions.check(
-                usesTypeDefinition,
-                new JavaVisitor<ExecutionContext>() {
+    public Validated<Object> validate() {
+        return super.validate().and(MigrationBudget.validate(classTimeBudget));
+    }
 
-                    @Override
-                    public J visitClassDeclaration(J.ClassDeclaration cd, ExecutionContext ctx) {
-                        getCursor().putMessage(TYPE_DEFINITIONS, typeDefinitions(cd));
-                        return super.visitClassDeclaration(cd, ctx);
-                    }
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                new UsesCucumberJava8(LambdaGlueClassifications.Kind.TYPE_DEFINITION),
+                new LambdaGlueVisitor(MigrationBudget.parse(classTimeBudget),
+                        LambdaGlueClassifications.Kind.TYPE_DEFINITION) {
 
                     @Override
                     public @Nullable J visitMethodInvocation(J.MethodInvocation mi, ExecutionContext ctx) {
@@ -129,27 +150,33 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
                             return methodInvocation;
                         }
 
-                        Map<UUID, TypeDefinitionArguments> typeDefinitions =
-                                getCursor().getNearestMessage(TYPE_DEFINITIONS, emptyMap());
+                        // Only worked out for a class that registers a type at all, on the first registration found in
+                        // it, and let go of along with the cursor of the class once its visit ends
+                        Cursor classCursor = getCursor().dropParentUntil(J.ClassDeclaration.class::isInstance);
+                        Map<UUID, TypeDefinitionArguments> typeDefinitions = classCursor.computeMessageIfAbsent(
+                                TYPE_DEFINITIONS, key -> typeDefinitions(classCursor.getValue(),
+                                        LambdaGlueClassifications.of(ctx),
+                                        classCursor.firstEnclosingOrThrow(SourceFile.class).getSourcePath()));
                         TypeDefinitionArguments arguments = typeDefinitions.get(methodInvocation.getId());
                         if (arguments == null) {
+                            RecipeRunMetrics.of(ctx).lambdaGlueFlagged();
                             return SearchResult.found(methodInvocation, "TODO Migrate manually");
                         }
 
-                        J.ClassDeclaration parentClass = getCursor()
-                                .dropParentUntil(J.ClassDeclaration.class::isInstance)
-                                .getValue();
                         J.MethodDeclaration glueDeclaration = getCursor().firstEnclosing(J.MethodDeclaration.class);
-                        doAfterVisit(new CucumberJava8ClassVisitor(
-                                parentClass.getType(),
+                        if (!migrate(methodInvocation, new GlueRegistration(
                                 glueDeclaration == null ? null : glueDeclaration.getId(),
                                 arguments.getReplacementImports(),
                                 emptyList(),
                                 arguments.template(),
                                 arguments.parameters(),
-                                arguments.getReturnJavaType()));
+                                arguments.getReturnJavaType(),
+                                arguments.contextSensitive()), ctx)) {
+                            RecipeRunMetrics.of(ctx).lambdaGlueFlagged();
+                            return SearchResult.found(methodInvocation, "TODO Migrate manually");
+                        }
 
-                        // Remove original method invocation; it's replaced in the above visitor
+                        // Remove original method invocation; it's replaced once the visit of the class ends
                         // noinspection DataFlowIssue
                         return null;
                     }
@@ -165,18 +192,12 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
         return false;
     }
 
-    /**
-     * @return whether this recipe replaces the registration, rather than leaving it for a manual migration
-     */
-    static boolean converts(J.MethodInvocation methodInvocation) {
-        return isTypeDefinition(methodInvocation) && parse(methodInvocation, null) != null;
-    }
-
     /**
      * Names are handed out for the class as a whole, in declaration order, so that every registration lands on the
      * same name whichever one is being replaced.
      */
-    private static Map<UUID, TypeDefinitionArguments> typeDefinitions(J.ClassDeclaration classDeclaration) {
+    private static Map<UUID, TypeDefinitionArguments> typeDefinitions(J.ClassDeclaration classDeclaration,
+            LambdaGlueClassifications classifications, Path sourcePath) {
         Set<String> methodNames = declaredMethodNames(classDeclaration);
         Map<UUID, TypeDefinitionArguments> typeDefinitions = new HashMap<>();
         new JavaIsoVisitor<Integer>() {
@@ -190,7 +211,9 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
             @Override
             public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, Integer p) {
                 if (isTypeDefinition(mi)) {
-                    TypeDefinitionArguments arguments = parse(mi, classDeclaration.getType());
+                    TypeDefinitionArguments arguments = classifications
+                            .take(mi, sourcePath, classDeclaration.getType())
+                            .getTypeDefinition();
                     if (arguments != null) {
                         typeDefinitions.put(mi.getId(), arguments.withMethodName(
                                 uniqueMethodName(arguments.getMethodName(), methodNames)));
@@ -205,10 +228,10 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
     /**
      * @return {@code null} where the registration cannot be converted, such as a body passed as a method reference
      */
-    private static @Nullable TypeDefinitionArguments parse(J.MethodInvocation methodInvocation,
+    static @Nullable TypeDefinitionArguments parse(J.MethodInvocation methodInvocation,
             JavaType.@Nullable FullyQualified parentClass) {
         List<Expression> arguments = methodInvocation.getArguments();
-        if (arguments.isEmpty() || !(arguments.get(arguments.size() - 1) instanceof J.Lambda)) {
+        if (arguments.isEmpty()) {
             return null;
         }
         for (int i = 0; i < arguments.size() - 1; i++) {
@@ -216,13 +239,32 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
                 return null;
             }
         }
-        J.Lambda lambda = (J.Lambda) arguments.get(arguments.size() - 1);
-        String functionalInterface = fullyQualifiedName(lambda.getType());
+        // The body is either a lambda, or an anonymous class implementing the same interface that moves like one
+        Expression definitionBody = arguments.get(arguments.size() - 1);
+        List<? extends J> declaredParameters;
+        J body;
+        JavaType bodyType;
+        J.MethodDeclaration anonymousBody = anonymousBody(definitionBody);
+        if (definitionBody instanceof J.Lambda) {
+            J.Lambda lambda = (J.Lambda) definitionBody;
+            declaredParameters = lambda.getParameters().getParameters();
+            body = lambda.getBody();
+            bodyType = lambda.getType();
+        } else if (anonymousBody != null) {
+            declaredParameters = anonymousBody.getParameters();
+            body = anonymousBody.getBody();
+            // The interface, not the anonymous class implementing it, carries the type argument the return type is
+            // read from
+            bodyType = ((J.NewClass) definitionBody).getClazz().getType();
+        } else {
+            return null;
+        }
+        String functionalInterface = fullyQualifiedName(bodyType);
         List<String> bodyParameters = functionalInterface == null ? null : BODY_PARAMETERS.get(functionalInterface);
         if (bodyParameters == null) {
             return null;
         }
-        List<String> parameters = parameters(lambda, bodyParameters);
+        List<String> parameters = parameters(declaredParameters, bodyParameters);
         if (parameters == null) {
             return null;
         }
@@ -240,10 +282,10 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
         JavaType returnJavaType = null;
         String returnType = "Object";
         if (!OBJECT_RETURNING_BODIES.contains(functionalInterface)) {
-            if (!(lambda.getType() instanceof JavaType.Parameterized)) {
+            if (!(bodyType instanceof JavaType.Parameterized)) {
                 return null;
             }
-            List<JavaType> typeParameters = ((JavaType.Parameterized) lambda.getType()).getTypeParameters();
+            List<JavaType> typeParameters = ((JavaType.Parameterized) bodyType).getTypeParameters();
             if (typeParameters.size() != 1) {
                 return null;
             }
@@ -286,7 +328,7 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
         }
         imports.add("io.cucumber.java." + annotationName);
         return new TypeDefinitionArguments(annotationName, annotationArguments, returnType, returnJavaType, methodName,
-                String.join(", ", parameters), new ArrayList<>(imports), lambda.getBody());
+                String.join(", ", parameters), new ArrayList<>(imports), body);
     }
 
     private static String replaceWithEmptyString(List<Expression> arguments) {
@@ -294,8 +336,7 @@ public class CucumberJava8TypeDefinitionToCucumberJava extends Recipe {
                 "(replaceWithEmptyString = " + literalSource(arguments.get(0)) + ")";
     }
 
-    private static @Nullable List<String> parameters(J.Lambda lambda, List<String> bodyParameters) {
-        List<J> declared = lambda.getParameters().getParameters();
+    private static @Nullable List<String> parameters(List<? extends J> declared, List<String> bodyParameters) {
         if (declared.size() != bodyParameters.size()) {
             return null;
         }
@@ -404,4 +445,13 @@ class TypeDefinitionArguments {
         return new Object[]{annotationName, annotationArguments, returnType, methodName, parameters, body};
     }
 
+    /**
+     * The parameters are all of a type imported along with the template; only the return type can name one that
+     * resolves in the file alone, which retyping the new method repairs where it is named by a single identifier.
+     */
+    boolean contextSensitive() {
+        return returnJavaType != null && !GlueMethods.resolvesWithoutContext(returnJavaType, replacementImports) &&
+                !returnType.matches("\\w+");
+    }
+
 }
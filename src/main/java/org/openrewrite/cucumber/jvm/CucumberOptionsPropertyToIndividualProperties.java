@@ -18,6 +18,7 @@ package org.openrewrite.cucumber.jvm;
 import lombok.Getter;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.marker.Markers;
 import org.openrewrite.maven.MavenIsoVisitor;
@@ -38,8 +39,8 @@ import static org.openrewrite.Tree.randomId;
 
 public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
 
-    private static final String CUCUMBER_OPTIONS = "cucumber.options";
-    private static final String SYSTEM_PROPERTY_VARIABLES = "systemPropertyVariables";
+    static final String CUCUMBER_OPTIONS = "cucumber.options";
+    static final String SYSTEM_PROPERTY_VARIABLES = "systemPropertyVariables";
 
     private static final String ANSI_COLORS_DISABLED = "cucumber.ansi-colors.disabled";
     private static final String EXECUTION_DRY_RUN = "cucumber.execution.dry-run";
@@ -64,6 +65,8 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
     private static final String MANUAL_MIGRATION = "TODO Cucumber-JVM 6.0.0 no longer reads cucumber.options; " +
             "migrate to the individual cucumber.* properties by hand";
 
+    private final transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     @Getter
     final String displayName = "Migrate the `cucumber.options` property";
 
@@ -76,7 +79,7 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new TreeVisitor<Tree, ExecutionContext>() {
+        return RecipeRunMetrics.measured(this, runMetrics, new TreeVisitor<Tree, ExecutionContext>() {
             @Override
             public boolean isAcceptable(SourceFile sourceFile, ExecutionContext ctx) {
                 return sourceFile instanceof Properties.File || sourceFile instanceof Xml.Document;
@@ -92,7 +95,7 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
                 }
                 return tree;
             }
-        };
+        });
     }
 
     private static PropertiesVisitor<ExecutionContext> propertiesVisitor() {
@@ -100,26 +103,14 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
             @Override
             public Properties visitFile(Properties.File file, ExecutionContext ctx) {
                 Properties.File f = (Properties.File) super.visitFile(file, ctx);
-                Properties.Entry options = f.getContent().stream()
-                        .filter(Properties.Entry.class::isInstance)
-                        .map(Properties.Entry.class::cast)
-                        .filter(entry -> CUCUMBER_OPTIONS.equals(entry.getKey()))
-                        .findFirst()
-                        .orElse(null);
+                Properties.Entry options = optionsEntry(f);
                 if (options == null) {
                     return f;
                 }
-                Map<String, String> replacements = individualProperties(options.getValue().getText());
+                Map<String, String> replacements = replacements(f, options);
                 if (replacements == null) {
                     return flagForManualMigration(getCursor(), f, options);
                 }
-                Set<String> present = f.getContent().stream()
-                        .filter(Properties.Entry.class::isInstance)
-                        .map(entry -> ((Properties.Entry) entry).getKey())
-                        .collect(toSet());
-                if (present.stream().anyMatch(replacements::containsKey)) {
-                    return flagForManualMigration(getCursor(), f, options);
-                }
                 String lineSeparator = lineSeparator(f);
                 List<Properties.Content> content = ListUtils.flatMap(f.getContent(), c -> {
                     if (c != options) {
@@ -146,6 +137,31 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
         };
     }
 
+    static Properties.@Nullable Entry optionsEntry(Properties.File file) {
+        return file.getContent().stream()
+                .filter(Properties.Entry.class::isInstance)
+                .map(Properties.Entry.class::cast)
+                .filter(entry -> CUCUMBER_OPTIONS.equals(entry.getKey()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return the entries replacing `cucumber.options` in the given file, or `null` if it is left for manual
+     * migration, as it contains options without a property equivalent or some replacement is already present.
+     */
+    static @Nullable Map<String, String> replacements(Properties.File file, Properties.Entry options) {
+        Map<String, String> replacements = individualProperties(options.getValue().getText());
+        if (replacements == null) {
+            return null;
+        }
+        Set<String> present = file.getContent().stream()
+                .filter(Properties.Entry.class::isInstance)
+                .map(entry -> ((Properties.Entry) entry).getKey())
+                .collect(toSet());
+        return present.stream().anyMatch(replacements::containsKey) ? null : replacements;
+    }
+
     private static Properties.File flagForManualMigration(
             Cursor fileCursor, Properties.File file, Properties.Entry options) {
         return Comments.of(cursorFor(fileCursor, file, options)).comment(" " + MANUAL_MIGRATION);
@@ -169,18 +185,10 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
                     return t;
                 }
                 Xml.Tag options = maybeOptions.get();
-                String value = optionsValue(options);
-                if (value == null) {
-                    return flagForManualMigration(getCursor(), t, options);
-                }
-                Map<String, String> replacements = individualProperties(value);
+                Map<String, String> replacements = replacements(t, options);
                 if (replacements == null) {
                     return flagForManualMigration(getCursor(), t, options);
                 }
-                Set<String> present = t.getChildren().stream().map(Xml.Tag::getName).collect(toSet());
-                if (present.stream().anyMatch(replacements::containsKey)) {
-                    return flagForManualMigration(getCursor(), t, options);
-                }
                 return t.withContent(ListUtils.flatMap(t.getContent(), c -> {
                     if (c != options) {
                         return c;
@@ -196,6 +204,24 @@ public class CucumberOptionsPropertyToIndividualProperties extends Recipe {
         };
     }
 
+    /**
+     * @return the tags replacing `cucumber.options` in the given `systemPropertyVariables`, or `null` if it is left
+     * for manual migration, as its value can not be written back unchanged, it contains options without a property
+     * equivalent or some replacement is already present.
+     */
+    static @Nullable Map<String, String> replacements(Xml.Tag systemPropertyVariables, Xml.Tag options) {
+        String value = optionsValue(options);
+        if (value == null) {
+            return null;
+        }
+        Map<String, String> replacements = individualProperties(value);
+        if (replacements == null) {
+            return null;
+        }
+        Set<String> present = systemPropertyVariables.getChildren().stream().map(Xml.Tag::getName).collect(toSet());
+        return present.stream().anyMatch(replacements::containsKey) ? null : replacements;
+    }
+
     private static Xml.Tag flagForManualMigration(
             Cursor tagCursor, Xml.Tag systemPropertyVariables, Xml.Tag options) {
         return Comments.of(cursorFor(tagCursor, systemPropertyVariables, options))
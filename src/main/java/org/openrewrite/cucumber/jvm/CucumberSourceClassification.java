@@ -0,0 +1,225 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.gradle.marker.GradleProject;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.maven.tree.MavenResolutionResult;
+import org.openrewrite.properties.tree.Properties;
+
+import java.util.*;
+
+/**
+ * What of Cucumber-JVM a source file has any use for, read in a single look at the types it uses, or at its kind
+ * where it is not a Java source file, for whichever recipe asks first. The recipes of an upgrade then all take their
+ * precondition from that one read, rather than each reading the types the file uses all over again, and the most of
+ * any repository, which has no use for Cucumber-JVM at all, is dismissed by every one of them at the cost of one.
+ */
+final class CucumberSourceClassification {
+
+    private static final String LAST_CLASSIFIED = CucumberSourceClassification.class.getName();
+
+    enum Kind {
+        /**
+         * Anything of `io.cucumber.java8`, such as `LambdaGlue` calls and the types those are declared with.
+         */
+        LAMBDA_GLUE,
+
+        /**
+         * Anything of `cucumber.api`, from before Cucumber-JVM 5.0.0 moved it to `io.cucumber`.
+         */
+        CUCUMBER_API,
+
+        /**
+         * The step definition and hook annotations of `io.cucumber.java` and `cucumber.api.java`.
+         */
+        GLUE_ANNOTATIONS,
+
+        /**
+         * The `Scenario` of either `io.cucumber.java` or `io.cucumber.java8`.
+         */
+        SCENARIO,
+
+        TYPE_REGISTRY_CONFIGURER,
+
+        /**
+         * The JUnit or TestNG `@CucumberOptions` of a runner class.
+         */
+        CUCUMBER_OPTIONS,
+
+        /**
+         * The JUnit Platform `@Cucumber` of a runner class.
+         */
+        JUNIT_PLATFORM_CUCUMBER,
+
+        SUMMARY_PRINTER,
+
+        FEATURE,
+        PROPERTIES,
+        BUILD_FILE
+    }
+
+    private CucumberSourceClassification() {
+    }
+
+    /**
+     * A precondition that holds for the source files classified as any of the kinds.
+     */
+    static TreeVisitor<?, ExecutionContext> classifiedAs(Kind kind, Kind... kinds) {
+        Set<Kind> anyOf = EnumSet.of(kind, kinds);
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof SourceFile) {
+                    for (Kind k : of((SourceFile) tree, ctx)) {
+                        if (anyOf.contains(k)) {
+                            return SearchResult.found(tree);
+                        }
+                    }
+                }
+                return tree;
+            }
+        };
+    }
+
+    static Set<Kind> of(SourceFile sourceFile, ExecutionContext ctx) {
+        return LastSourceFileCache.<Set<Kind>>of(ctx, LAST_CLASSIFIED)
+                .computeIfAbsent(sourceFile, CucumberSourceClassification::classify);
+    }
+
+    private static Set<Kind> classify(SourceFile sourceFile) {
+        Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+        // Ahead of the rest, as a Gradle build script is a Java source file as well
+        if (isBuildFile(sourceFile)) {
+            kinds.add(Kind.BUILD_FILE);
+        }
+        if (sourceFile instanceof JavaSourceFile) {
+            JavaSourceFile javaSourceFile = (JavaSourceFile) sourceFile;
+            for (JavaType type : javaSourceFile.getTypesInUse().getTypesInUse()) {
+                if (type instanceof JavaType.FullyQualified) {
+                    JavaType.FullyQualified fullyQualified = (JavaType.FullyQualified) type;
+                    classifyType(kinds, fullyQualified.getPackageName(), fullyQualified.getFullyQualifiedName());
+                }
+            }
+            for (JavaType.Method method : javaSourceFile.getTypesInUse().getUsedMethods()) {
+                JavaType.FullyQualified declaringType = method.getDeclaringType();
+                classifyType(kinds, declaringType.getPackageName(), declaringType.getFullyQualifiedName());
+            }
+            // An import is classified too where nothing else in the file names the type it imports
+            for (J.Import anImport : javaSourceFile.getImports()) {
+                classifyType(kinds, anImport.getPackageName(), anImport.getTypeName());
+            }
+            // As `UsesType` including implicit supertypes would, a class implementing it through a type of the
+            // project's own, which no type in use names, is a configurer all the same
+            if (!kinds.contains(Kind.TYPE_REGISTRY_CONFIGURER)) {
+                Set<String> walked = new HashSet<>();
+                for (JavaType type : javaSourceFile.getTypesInUse().getTypesInUse()) {
+                    if (type instanceof JavaType.FullyQualified &&
+                            isTypeRegistryConfigurer((JavaType.FullyQualified) type, walked)) {
+                        kinds.add(Kind.TYPE_REGISTRY_CONFIGURER);
+                        break;
+                    }
+                }
+            }
+        } else if (sourceFile instanceof Properties.File) {
+            kinds.add(Kind.PROPERTIES);
+        } else if (sourceFile.getSourcePath().toString().endsWith(".feature")) {
+            kinds.add(Kind.FEATURE);
+        }
+        return kinds;
+    }
+
+    private static void classifyType(Set<Kind> kinds, String packageName, String fullyQualifiedName) {
+        if (!isInPackage(packageName, "io.cucumber") && !isInPackage(packageName, "cucumber.api")) {
+            return;
+        }
+        if (isInPackage(packageName, "io.cucumber.java8") || isInPackage(packageName, "cucumber.api.java8")) {
+            kinds.add(Kind.LAMBDA_GLUE);
+        } else if (isInPackage(packageName, "io.cucumber.java") || isInPackage(packageName, "cucumber.api.java")) {
+            kinds.add(Kind.GLUE_ANNOTATIONS);
+        }
+        if (isInPackage(packageName, "cucumber.api")) {
+            kinds.add(Kind.CUCUMBER_API);
+        }
+        switch (fullyQualifiedName) {
+            case "io.cucumber.java.Scenario":
+            case "io.cucumber.java8.Scenario":
+                kinds.add(Kind.SCENARIO);
+                break;
+            case "io.cucumber.junit.CucumberOptions":
+            case "io.cucumber.testng.CucumberOptions":
+                kinds.add(Kind.CUCUMBER_OPTIONS);
+                break;
+            case "io.cucumber.junit.platform.engine.Cucumber":
+                kinds.add(Kind.JUNIT_PLATFORM_CUCUMBER);
+                break;
+            case "io.cucumber.plugin.SummaryPrinter":
+                kinds.add(Kind.SUMMARY_PRINTER);
+                break;
+            default:
+                if (fullyQualifiedName.endsWith(".api.TypeRegistryConfigurer")) {
+                    kinds.add(Kind.TYPE_REGISTRY_CONFIGURER);
+                }
+        }
+    }
+
+    /**
+     * @param walked the types already walked, as supertypes of another type in use, and found to be no configurer
+     * @return whether the type is, or inherits from, a `TypeRegistryConfigurer`
+     */
+    private static boolean isTypeRegistryConfigurer(JavaType.@Nullable FullyQualified type, Set<String> walked) {
+        // Nothing of the JDK implements a type of Cucumber-JVM, which saves walking the supertypes of most types in use
+        if (type == null || isInPackage(type.getPackageName(), "java") ||
+                !walked.add(type.getFullyQualifiedName())) {
+            return false;
+        }
+        String packageName = type.getPackageName();
+        if (type.getFullyQualifiedName().endsWith(".api.TypeRegistryConfigurer") &&
+                (isInPackage(packageName, "io.cucumber") || isInPackage(packageName, "cucumber.api"))) {
+            return true;
+        }
+        if (isTypeRegistryConfigurer(type.getSupertype(), walked)) {
+            return true;
+        }
+        for (JavaType.FullyQualified anInterface : type.getInterfaces()) {
+            if (isTypeRegistryConfigurer(anInterface, walked)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInPackage(String packageName, String parent) {
+        return packageName.equals(parent) || packageName.startsWith(parent + '.');
+    }
+
+    /**
+     * Only a build file parsed as one carries the resolution marker the dependency recipes read; a file merely named
+     * like one, such as a `pom.xml` among test resources, is none for them to change.
+     */
+    private static boolean isBuildFile(SourceFile sourceFile) {
+        return sourceFile.getMarkers().findFirst(MavenResolutionResult.class).isPresent() ||
+                sourceFile.getMarkers().findFirst(GradleProject.class).isPresent();
+    }
+}
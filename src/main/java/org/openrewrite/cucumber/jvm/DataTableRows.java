@@ -0,0 +1,38 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
+
+/**
+ * Inserts the rows of the data tables of this module one at a time. A data table collects its rows in a list kept
+ * as an execution context message, which is read and written back with no lock of its own; a processor visiting
+ * files in parallel shares the one execution context between its threads, and would otherwise lose rows. The lock is
+ * that execution context, as the message holding the rows is shared by all data tables of a run, while separate runs
+ * insert theirs without waiting on each other.
+ */
+final class DataTableRows {
+
+    private DataTableRows() {
+    }
+
+    static <R> void insert(DataTable<R> table, ExecutionContext ctx, R row) {
+        synchronized (ctx) {
+            table.insertRow(ctx, row);
+        }
+    }
+}
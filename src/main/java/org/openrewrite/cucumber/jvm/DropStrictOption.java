@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.properties.DeleteProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class DropStrictOption extends Recipe {
+
+    private static final String JUNIT_CUCUMBER_OPTIONS = "io.cucumber.junit.CucumberOptions";
+    private static final String TESTNG_CUCUMBER_OPTIONS = "io.cucumber.testng.CucumberOptions";
+    private static final String CUCUMBER_EXECUTION_STRICT = "cucumber.execution.strict";
+
+    private static final Map<String, Set<String>> ATTRIBUTES_BY_ANNOTATION_TYPE;
+
+    static {
+        Map<String, Set<String>> attributesByAnnotationType = new LinkedHashMap<>();
+        attributesByAnnotationType.put(JUNIT_CUCUMBER_OPTIONS, Collections.singleton("strict"));
+        attributesByAnnotationType.put(TESTNG_CUCUMBER_OPTIONS, Collections.singleton("strict"));
+        ATTRIBUTES_BY_ANNOTATION_TYPE = Collections.unmodifiableMap(attributesByAnnotationType);
+    }
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
+    String displayName = "Drop the `strict` option";
+
+    String description = "Cucumber-JVM 7.0.0 removed the `strict` option, as scenarios are now always executed in " +
+            "strict mode.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        TreeVisitor<?, ExecutionContext> annotations = Preconditions.check(
+                classifiedAs(Kind.CUCUMBER_OPTIONS),
+                new AnnotationAttributeRemovals(ATTRIBUTES_BY_ANNOTATION_TYPE));
+        TreeVisitor<?, ExecutionContext> property = Preconditions.check(
+                classifiedAs(Kind.PROPERTIES),
+                new DeleteProperty(CUCUMBER_EXECUTION_STRICT, false).getVisitor());
+        return RecipeRunMetrics.measured(this, runMetrics, new TreeVisitor<Tree, ExecutionContext>() {
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                // Offered to both, as either leaves alone whatever is not classified as the source file it reads
+                Tree afterAnnotations = annotations.visit(tree, ctx);
+                return property.visit(afterAnnotations, ctx);
+            }
+        }));
+    }
+}
@@ -17,14 +17,14 @@ package org.openrewrite.cucumber.jvm;
 
 import lombok.Getter;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.ChangeType;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.RemoveImport;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.TypeUtils;
 
@@ -33,11 +33,15 @@ import java.util.Collection;
 import java.util.Objects;
 import java.util.stream.Stream;
 
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
 public class DropSummaryPrinter extends Recipe {
 
     private static final String IO_CUCUMBER_PLUGIN_SUMMARY_PRINTER = "io.cucumber.plugin.SummaryPrinter";
     private static final String IO_CUCUMBER_PLUGIN_PLUGIN = "io.cucumber.plugin.Plugin";
 
+    private final transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     @Getter
     final String displayName = "Drop `SummaryPrinter`";
 
@@ -49,7 +53,8 @@ public class DropSummaryPrinter extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new UsesType<>(IO_CUCUMBER_PLUGIN_SUMMARY_PRINTER, null), new JavaIsoVisitor<ExecutionContext>() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.SUMMARY_PRINTER), new JavaIsoVisitor<ExecutionContext>() {
 
             @Override
             public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, ExecutionContext ctx) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class DropTimeoutAttribute extends Recipe {
+
+    private static final String CUCUMBER_API_JAVA = "cucumber.api.java..*";
+    private static final String IO_CUCUMBER_JAVA = "io.cucumber.java..*";
+
+    /**
+     * The step definition and hook annotations, both before and after the move of `cucumber.api.java` to
+     * `io.cucumber.java`, along with every `<lang>` step definition annotation package below either.
+     */
+    private static final Map<String, Set<String>> ATTRIBUTES_BY_ANNOTATION_TYPE;
+
+    static {
+        Map<String, Set<String>> attributesByAnnotationType = new LinkedHashMap<>();
+        attributesByAnnotationType.put(CUCUMBER_API_JAVA, Collections.singleton("timeout"));
+        attributesByAnnotationType.put(IO_CUCUMBER_JAVA, Collections.singleton("timeout"));
+        ATTRIBUTES_BY_ANNOTATION_TYPE = Collections.unmodifiableMap(attributesByAnnotationType);
+    }
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
+    String displayName = "Drop the `timeout` attribute";
+
+    String description = "Cucumber-JVM 5.0.0 removed the `timeout` attribute from step definition and hook " +
+            "annotations, in favor of asserting on the duration from within the step definition itself.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.GLUE_ANNOTATIONS),
+                new AnnotationAttributeRemovals(ATTRIBUTES_BY_ANNOTATION_TYPE));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.ScanningRecipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberMigrationEstimate;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.maven.MavenIsoVisitor;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.xml.tree.Xml;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class EstimateCucumberMigration extends ScanningRecipe<Set<Path>> {
+
+    transient CucumberMigrationEstimate estimate = new CucumberMigrationEstimate(this);
+
+    String displayName = "Estimate the Cucumber-JVM 7.x migration";
+
+    String description = "Tells apart the `LambdaGlue` calls, `TypeRegistryConfigurer` registrations, regex step " +
+            "expressions and `cucumber.options` properties the Cucumber-JVM 7.x upgrade converts from those it " +
+            "leaves for a manual migration, and sums up the effort the recipes estimate for them in a data table. " +
+            "Nothing is changed, and no template is applied, so this runs in a fraction of the time the upgrade " +
+            "itself takes.";
+
+    /**
+     * What is counted, and the recipe migrating it that the estimated effort per occurrence is taken from.
+     */
+    private enum Occurrence {
+        STEP_DEFINITION("`LambdaGlue` step definition", CucumberJava8StepDefinitionToCucumberJava::new),
+        HOOK_DEFINITION("`LambdaGlue` hook definition", CucumberJava8HookDefinitionToCucumberJava::new),
+        TYPE_DEFINITION("`LambdaGlue` type definition", CucumberJava8TypeDefinitionToCucumberJava::new),
+        TYPE_REGISTRY_CONFIGURER("`TypeRegistryConfigurer` registration", TypeRegistryConfigurerToAnnotations::new),
+        REGEX_STEP("Regex step expression", RegexToCucumberExpression::new),
+        CUCUMBER_OPTIONS("`cucumber.options` property", CucumberOptionsPropertyToIndividualProperties::new);
+
+        final String description;
+        final Duration effortPerOccurrence;
+
+        Occurrence(String description, Supplier<Recipe> migratedBy) {
+            this.description = description;
+            Duration effort = migratedBy.get().getEstimatedEffortPerOccurrence();
+            this.effortPerOccurrence = effort == null ? Duration.ZERO : effort;
+        }
+    }
+
+    @Override
+    public Set<Path> getInitialValue(ExecutionContext ctx) {
+        // Scanned in parallel where the run visits files in parallel
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Set<Path> estimated) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                // Only the sources as they are to begin with are estimated, not what a later cycle finds of them
+                if (!(tree instanceof SourceFile) || !estimated.add(((SourceFile) tree).getSourcePath())) {
+                    return tree;
+                }
+                SourceFile sourceFile = (SourceFile) tree;
+                Set<Kind> kinds = CucumberSourceClassification.of(sourceFile, ctx);
+                Map<Occurrence, int[]> tally = new EnumMap<>(Occurrence.class);
+                if (kinds.contains(Kind.LAMBDA_GLUE)) {
+                    lambdaGlue(tally).visit(sourceFile, ctx);
+                }
+                if (kinds.contains(Kind.TYPE_REGISTRY_CONFIGURER)) {
+                    typeRegistryConfigurers(tally).visit(sourceFile, ctx);
+                }
+                if (kinds.contains(Kind.GLUE_ANNOTATIONS)) {
+                    regexSteps(tally).visit(sourceFile, ctx);
+                }
+                if (sourceFile instanceof Properties.File) {
+                    Properties.File file = (Properties.File) sourceFile;
+                    Properties.Entry options = CucumberOptionsPropertyToIndividualProperties.optionsEntry(file);
+                    if (options != null) {
+                        count(tally, Occurrence.CUCUMBER_OPTIONS,
+                                CucumberOptionsPropertyToIndividualProperties.replacements(file, options) != null, 1);
+                    }
+                } else if (sourceFile instanceof Xml.Document) {
+                    systemPropertyVariables(tally).visit(sourceFile, ctx);
+                }
+
+                for (Map.Entry<Occurrence, int[]> occurrences : tally.entrySet()) {
+                    insertRow(ctx, sourceFile, occurrences.getKey(), true, occurrences.getValue()[0]);
+                    insertRow(ctx, sourceFile, occurrences.getKey(), false, occurrences.getValue()[1]);
+                }
+                return tree;
+            }
+        };
+    }
+
+    private static JavaIsoVisitor<ExecutionContext> lambdaGlue(Map<Occurrence, int[]> tally) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                Occurrence occurrence;
+                if (CucumberJava8StepDefinitionToCucumberJava.isStepDefinition(m)) {
+                    occurrence = Occurrence.STEP_DEFINITION;
+                } else if (CucumberJava8HookDefinitionToCucumberJava.isHookDefinition(m)) {
+                    occurrence = Occurrence.HOOK_DEFINITION;
+                } else if (CucumberJava8TypeDefinitionToCucumberJava.isTypeDefinition(m)) {
+                    occurrence = Occurrence.TYPE_DEFINITION;
+                } else {
+                    return m;
+                }
+                J.ClassDeclaration enclosingClass = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                // Nothing goes on to replace the invocation when estimating, so nothing else needs the decision
+                boolean converts = LambdaGlueClassifications.of(ctx)
+                        .take(m, getCursor().firstEnclosingOrThrow(SourceFile.class).getSourcePath(),
+                                enclosingClass == null ? null : enclosingClass.getType())
+                        .converts();
+                count(tally, occurrence, converts, 1);
+                return m;
+            }
+        };
+    }
+
+    /**
+     * Each `TypeRegistryConfigurer` class counts as one occurrence per registration, and only as convertible when
+     * every one of them is a registration there is an annotation for; a class without a `configureTypeRegistry` to
+     * read counts as the one that could not be converted.
+     */
+    private static JavaIsoVisitor<ExecutionContext> typeRegistryConfigurers(Map<Occurrence, int[]> tally) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+                if (!TypeRegistryConfigurerToAnnotations.isTypeRegistryConfigurer(c)) {
+                    return c;
+                }
+                J.MethodDeclaration configureTypeRegistry = TypeRegistryConfigurerToAnnotations.configureTypeRegistry(c);
+                if (configureTypeRegistry == null || configureTypeRegistry.getBody() == null) {
+                    count(tally, Occurrence.TYPE_REGISTRY_CONFIGURER, false, 1);
+                    return c;
+                }
+                J.Block body = configureTypeRegistry.getBody();
+                boolean convertible = body.getStatements().stream().allMatch(statement ->
+                        statement instanceof J.VariableDeclarations ||
+                        TypeRegistryConfigurerToAnnotations.isConvertible(statement));
+                int registrations = TypeRegistryConfigurerToAnnotations.registrations(body);
+                count(tally, Occurrence.TYPE_REGISTRY_CONFIGURER, convertible,
+                        convertible ? registrations : Math.max(registrations, 1));
+                return c;
+            }
+        };
+    }
+
+    private static JavaIsoVisitor<ExecutionContext> regexSteps(Map<Occurrence, int[]> tally) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+                for (J.Annotation annotation : m.getLeadingAnnotations()) {
+                    if (RegexToCucumberExpression.isRegexStep(annotation)) {
+                        J.Annotation converted = RegexToCucumberExpression
+                                .replaceRegexWithCucumberExpression(m, annotation);
+                        count(tally, Occurrence.REGEX_STEP, converted != annotation, 1);
+                    }
+                }
+                return m;
+            }
+        };
+    }
+
+    private static MavenIsoVisitor<ExecutionContext> systemPropertyVariables(Map<Occurrence, int[]> tally) {
+        return new MavenIsoVisitor<ExecutionContext>() {
+            @Override
+            public Xml.Tag visitTag(Xml.Tag tag, ExecutionContext ctx) {
+                Xml.Tag t = super.visitTag(tag, ctx);
+                if (CucumberOptionsPropertyToIndividualProperties.SYSTEM_PROPERTY_VARIABLES.equals(t.getName())) {
+                    Optional<Xml.Tag> options = t.getChild(
+                            CucumberOptionsPropertyToIndividualProperties.CUCUMBER_OPTIONS);
+                    options.ifPresent(o -> count(tally, Occurrence.CUCUMBER_OPTIONS,
+                            CucumberOptionsPropertyToIndividualProperties.replacements(t, o) != null, 1));
+                }
+                return t;
+            }
+        };
+    }
+
+    private static void count(Map<Occurrence, int[]> tally, Occurrence occurrence, boolean convertible, int n) {
+        tally.computeIfAbsent(occurrence, o -> new int[2])[convertible ? 0 : 1] += n;
+    }
+
+    private void insertRow(ExecutionContext ctx, SourceFile sourceFile, Occurrence occurrence, boolean convertible,
+            int occurrences) {
+        if (occurrences > 0) {
+            DataTableRows.insert(estimate, ctx, new CucumberMigrationEstimate.Row(
+                    sourceFile.getSourcePath().toString(),
+                    occurrence.description,
+                    convertible,
+                    occurrences,
+                    occurrence.effortPerOccurrence.toMinutes() * occurrences));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Statement;
+
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * The names a glue declaration declares, and which of those the methods migrated out of it still read, indexed in a
+ * single walk over the glue declaration and over each migrated method, rather than a walk for every question asked.
+ */
+class GlueDeclarationScope {
+
+    /**
+     * The variables declared directly in the glue declaration body, in declaration order.
+     */
+    private final List<J.VariableDeclarations> bodyDeclarations = new ArrayList<>();
+
+    private final Set<String> declaredInBody = new HashSet<>();
+
+    /**
+     * The variables declared in a scope nested inside the glue declaration body, such as the body of an {@code if}.
+     */
+    private final Set<String> declaredInNestedScope = new HashSet<>();
+
+    /**
+     * The names the migrated methods use without declaring, which is what a hoisted lambda body closed over.
+     */
+    private final Set<String> capturedNames = new HashSet<>();
+
+    private GlueDeclarationScope() {
+    }
+
+    static GlueDeclarationScope of(J.ClassDeclaration classDeclaration, J.@Nullable MethodDeclaration glueDeclaration) {
+        GlueDeclarationScope scope = new GlueDeclarationScope();
+        if (glueDeclaration == null) {
+            return scope;
+        }
+        for (Statement statement : classDeclaration.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration && !statement.getId().equals(glueDeclaration.getId()) &&
+                    CucumberJava8ClassVisitor.isCucumberAnnotated((J.MethodDeclaration) statement)) {
+                scope.indexMigratedMethod((J.MethodDeclaration) statement);
+            }
+        }
+        if (glueDeclaration.getBody() != null && !scope.capturedNames.isEmpty()) {
+            scope.indexGlueDeclaration(glueDeclaration.getBody());
+        }
+        return scope;
+    }
+
+    private void indexMigratedMethod(J.MethodDeclaration method) {
+        Set<String> referenced = new HashSet<>();
+        Set<String> declared = new HashSet<>();
+        new JavaIsoVisitor<Integer>() {
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, Integer p) {
+                // The method name resolves against whatever it is invoked on, so it is no name of its own
+                visit(mi.getSelect(), p);
+                visit(mi.getArguments(), p);
+                return mi;
+            }
+
+            @Override
+            public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, Integer p) {
+                // Likewise the name after the dot is a member of what precedes it
+                visit(fieldAccess.getTarget(), p);
+                return fieldAccess;
+            }
+
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, Integer p) {
+                referenced.add(identifier.getSimpleName());
+                return identifier;
+            }
+
+            @Override
+            public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable,
+                    Integer p) {
+                declared.add(variable.getSimpleName());
+                return super.visitVariable(variable, p);
+            }
+        }.visit(method, 0);
+        referenced.removeAll(declared);
+        capturedNames.addAll(referenced);
+    }
+
+    private void indexGlueDeclaration(J.Block body) {
+        for (Statement statement : body.getStatements()) {
+            if (statement instanceof J.VariableDeclarations) {
+                bodyDeclarations.add((J.VariableDeclarations) statement);
+                for (J.VariableDeclarations.NamedVariable variable : ((J.VariableDeclarations) statement).getVariables()) {
+                    declaredInBody.add(variable.getSimpleName());
+                }
+            }
+        }
+        new JavaIsoVisitor<Integer>() {
+
+            @Override
+            public J.Lambda visitLambda(J.Lambda lambda, Integer p) {
+                // A lambda yet to migrate is a scope of its own, as is an anonymous class body
+                return lambda;
+            }
+
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, Integer p) {
+                return newClass;
+            }
+
+            @Override
+            public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable,
+                    Integer p) {
+                if (!declaredInBody.contains(variable.getSimpleName())) {
+                    declaredInNestedScope.add(variable.getSimpleName());
+                }
+                return super.visitVariable(variable, p);
+            }
+        }.visit(body, 0);
+    }
+
+    /**
+     * @return the variables declared directly in the glue declaration body that the migrated methods still refer to,
+     * whether or not they can be turned into a field
+     */
+    List<J.VariableDeclarations> capturedLocalVariables() {
+        if (capturedNames.isEmpty()) {
+            return emptyList();
+        }
+        List<J.VariableDeclarations> captured = new ArrayList<>();
+        for (J.VariableDeclarations declaration : bodyDeclarations) {
+            if (declaration.getVariables().stream()
+                    .anyMatch(variable -> capturedNames.contains(variable.getSimpleName()))) {
+                captured.add(declaration);
+            }
+        }
+        return captured;
+    }
+
+    /**
+     * A variable declared in a scope nested inside the glue declaration cannot become a field assigned where it was
+     * declared, as that assignment only runs when that scope is entered.
+     *
+     * @return whether a name the migrated methods use is declared in such a scope, leaving nothing for the name to
+     * resolve against once the lambda body has moved out
+     */
+    boolean capturedFromNestedScope(Set<String> fieldNames) {
+        for (String name : declaredInNestedScope) {
+            if (capturedNames.contains(name) && !fieldNames.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
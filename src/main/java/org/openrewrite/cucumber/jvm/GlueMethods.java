@@ -17,29 +17,36 @@ package org.openrewrite.cucumber.jvm;
 
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.internal.StringUtils;
+import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.Statement;
 import org.openrewrite.java.tree.TypeUtils;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Shared by the recipes that turn a registered transformation into a `cucumber-java` annotated method.
  */
 final class GlueMethods {
 
-    static final Map<String, String> PARAMETER_TYPE_IMPORTS = new HashMap<>();
+    static final Map<String, String> PARAMETER_TYPE_IMPORTS;
 
     static {
-        PARAMETER_TYPE_IMPORTS.put("DataTable", "io.cucumber.datatable.DataTable");
-        PARAMETER_TYPE_IMPORTS.put("List<String>", "java.util.List");
-        PARAMETER_TYPE_IMPORTS.put("Map<String, String>", "java.util.Map");
-        PARAMETER_TYPE_IMPORTS.put("Type", "java.lang.reflect.Type");
+        Map<String, String> parameterTypeImports = new HashMap<>();
+        parameterTypeImports.put("DataTable", "io.cucumber.datatable.DataTable");
+        parameterTypeImports.put("List<String>", "java.util.List");
+        parameterTypeImports.put("Map<String, String>", "java.util.Map");
+        parameterTypeImports.put("Type", "java.lang.reflect.Type");
+        PARAMETER_TYPE_IMPORTS = Collections.unmodifiableMap(parameterTypeImports);
     }
 
     private GlueMethods() {
@@ -104,6 +111,102 @@ final class GlueMethods {
         return methodName;
     }
 
+    /**
+     * A template parsed without context only has its own imports and {@code java.lang} to resolve the types it names
+     * against, where the compilation unit it lands in might well import more, or declare them itself.
+     *
+     * @return whether a template naming this type can do without that context
+     */
+    static boolean resolvesWithoutContext(@Nullable JavaType type, Collection<String> imports) {
+        if (type instanceof JavaType.Primitive) {
+            return true;
+        }
+        if (type instanceof JavaType.Array) {
+            return resolvesWithoutContext(((JavaType.Array) type).getElemType(), imports);
+        }
+        if (type instanceof JavaType.Parameterized) {
+            for (JavaType typeParameter : ((JavaType.Parameterized) type).getTypeParameters()) {
+                if (!resolvesWithoutContext(typeParameter, imports)) {
+                    return false;
+                }
+            }
+            return resolvesWithoutContext(((JavaType.Parameterized) type).getType(), imports);
+        }
+        if (type instanceof JavaType.Class) {
+            JavaType.Class clazz = (JavaType.Class) type;
+            return clazz.getOwningClass() == null &&
+                    ("java.lang".equals(clazz.getPackageName()) || imports.contains(clazz.getFullyQualifiedName()));
+        }
+        return false;
+    }
+
+    /**
+     * An anonymous class implementing nothing but the single method of a `cucumber-java8` body interface moves just
+     * like a lambda would, its method body becoming that of the annotated method. That no longer holds where the
+     * method refers to the anonymous instance itself, through {@code this}, {@code super}, or a method inherited from
+     * the body interface or {@code Object}, as in the annotated method those resolve against the glue class instead.
+     *
+     * @return the method the anonymous class implements, or {@code null} where the expression is no such class
+     */
+    static J.@Nullable MethodDeclaration anonymousBody(Expression expression) {
+        if (!(expression instanceof J.NewClass)) {
+            return null;
+        }
+        J.NewClass newClass = (J.NewClass) expression;
+        if (newClass.getBody() == null || newClass.getClazz() == null || newClass.getEnclosing() != null) {
+            return null;
+        }
+        for (Expression argument : newClass.getArguments()) {
+            if (!(argument instanceof J.Empty)) {
+                return null;
+            }
+        }
+        List<Statement> members = newClass.getBody().getStatements();
+        if (members.size() != 1 || !(members.get(0) instanceof J.MethodDeclaration)) {
+            return null;
+        }
+        J.MethodDeclaration method = (J.MethodDeclaration) members.get(0);
+        if (method.getBody() == null ||
+                refersToInstance(method, newClass.getType(), newClass.getClazz().getType())) {
+            return null;
+        }
+        return method;
+    }
+
+    private static boolean refersToInstance(J.MethodDeclaration method, @Nullable JavaType anonymousType,
+                                            @Nullable JavaType bodyType) {
+        return new JavaIsoVisitor<AtomicBoolean>() {
+
+            @Override
+            public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, AtomicBoolean found) {
+                // The name is never the anonymous instance, a qualified `Outer.this` being the glue class anywhere
+                visit(fieldAccess.getTarget(), found);
+                return fieldAccess;
+            }
+
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, AtomicBoolean found) {
+                if ("this".equals(identifier.getSimpleName()) || "super".equals(identifier.getSimpleName())) {
+                    found.set(true);
+                }
+                return identifier;
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, AtomicBoolean found) {
+                if (mi.getSelect() == null) {
+                    JavaType.FullyQualified declaringType = mi.getMethodType() == null ?
+                            null : mi.getMethodType().getDeclaringType();
+                    if (declaringType == null || TypeUtils.isOfType(declaringType, anonymousType) ||
+                            TypeUtils.isAssignableTo(declaringType, bodyType)) {
+                        found.set(true);
+                    }
+                }
+                return super.visitMethodInvocation(mi, found);
+            }
+        }.reduce(method.getBody(), new AtomicBoolean()).get();
+    }
+
     /**
      * @return the type of a {@code "Type name"} parameter declaration
      */
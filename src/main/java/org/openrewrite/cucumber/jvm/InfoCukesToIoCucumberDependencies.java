@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
+import org.openrewrite.gradle.marker.GradleProject;
+import org.openrewrite.java.dependencies.ChangeDependency;
+import org.openrewrite.maven.tree.*;
+
+import java.util.*;
+
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class InfoCukesToIoCucumberDependencies extends Recipe {
+
+    private static final String INFO_CUKES = "info.cukes";
+    private static final String IO_CUCUMBER = "io.cucumber";
+
+    /**
+     * The artifacts that moved to `io.cucumber` under the same artifact id and have a 2.x release there; anything
+     * else under `info.cukes`, such as `gherkin` or `cucumber-pro`, did not and is left alone.
+     */
+    private static final List<String> ARTIFACT_IDS = Collections.unmodifiableList(Arrays.asList(
+            "cucumber-android",
+            "cucumber-clojure",
+            "cucumber-core",
+            "cucumber-gosu",
+            "cucumber-groovy",
+            "cucumber-guice",
+            "cucumber-java",
+            "cucumber-java8",
+            "cucumber-jruby",
+            "cucumber-junit",
+            "cucumber-jython",
+            "cucumber-needle",
+            "cucumber-openejb",
+            "cucumber-osgi",
+            "cucumber-picocontainer",
+            "cucumber-rhino",
+            "cucumber-scala_2.10",
+            "cucumber-scala_2.11",
+            "cucumber-scala_2.12",
+            "cucumber-spring",
+            "cucumber-testng",
+            "cucumber-weld"));
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
+    String displayName = "Move `info.cukes` dependencies to `io.cucumber`";
+
+    String description = "Cucumber-JVM 2.0.0 moved from the `info.cukes` group to `io.cucumber`, keeping the " +
+            "artifact ids. Changes each `info.cukes` Cucumber-JVM dependency to its `io.cucumber` counterpart at the " +
+            "latest 2.x release.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.BUILD_FILE), new TreeVisitor<Tree, ExecutionContext>() {
+
+            /**
+             * Only the artifacts the build file depends on are changed. When every `info.cukes` Cucumber-JVM
+             * artifact it depends on moved, they all move as the one `ChangeDependency` of `cucumber-*`, so the
+             * build file is resolved again once rather than once per artifact.
+             */
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                Tree t = tree;
+                for (String oldArtifactId : oldArtifactIds(dependedUpon((SourceFile) tree))) {
+                    t = new ChangeDependency(INFO_CUKES, oldArtifactId, IO_CUCUMBER, null, "2.x", null, null, null)
+                            .getVisitor().visitNonNull(t, ctx);
+                }
+                return t;
+            }
+        });
+    }
+
+    /**
+     * The artifact ids to change, as a single `cucumber-*` pattern unless that would also take along an artifact
+     * depended upon that did not move, such as `cucumber-pro`; only then is each artifact changed on its own.
+     */
+    private static Collection<String> oldArtifactIds(Set<String> dependedUpon) {
+        List<String> moving = new ArrayList<>(ARTIFACT_IDS);
+        moving.retainAll(dependedUpon);
+        if (moving.size() <= 1) {
+            return moving;
+        }
+        for (String artifactId : dependedUpon) {
+            if (artifactId.startsWith("cucumber-") && !ARTIFACT_IDS.contains(artifactId)) {
+                return moving;
+            }
+        }
+        return Collections.singletonList("cucumber-*");
+    }
+
+    /**
+     * The `info.cukes` artifacts depended upon as read from the build file's resolution marker, which is already
+     * there without visiting the build file; a file without one is no build file `ChangeDependency` could change
+     * anything in, so none are.
+     */
+    private static Set<String> dependedUpon(SourceFile sourceFile) {
+        Set<String> dependedUpon = new HashSet<>();
+        MavenResolutionResult maven = sourceFile.getMarkers().findFirst(MavenResolutionResult.class).orElse(null);
+        GradleProject gradle = sourceFile.getMarkers().findFirst(GradleProject.class).orElse(null);
+        if (maven != null) {
+            ResolvedPom pom = maven.getPom();
+            for (Dependency dependency : pom.getRequestedDependencies()) {
+                addIfInfoCukes(dependedUpon, dependency.getGroupId(), dependency.getArtifactId());
+            }
+            for (ResolvedManagedDependency managed : pom.getDependencyManagement()) {
+                addIfInfoCukes(dependedUpon, managed.getGroupId(), managed.getArtifactId());
+            }
+            for (Plugin plugin : pom.getPlugins()) {
+                for (Dependency dependency : plugin.getDependencies()) {
+                    addIfInfoCukes(dependedUpon, dependency.getGroupId(), dependency.getArtifactId());
+                }
+            }
+        } else if (gradle != null) {
+            for (GradleDependencyConfiguration configuration : gradle.getConfigurations()) {
+                for (Dependency dependency : configuration.getRequested()) {
+                    addIfInfoCukes(dependedUpon, dependency.getGroupId(), dependency.getArtifactId());
+                }
+            }
+        }
+        return dependedUpon;
+    }
+
+    private static void addIfInfoCukes(Set<String> dependedUpon, @Nullable String groupId, String artifactId) {
+        if (INFO_CUKES.equals(groupId)) {
+            dependedUpon.add(artifactId);
+        }
+    }
+}
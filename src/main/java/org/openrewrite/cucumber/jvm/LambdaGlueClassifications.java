@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether each `LambdaGlue` call is a step, hook or type definition, and what it is replaced with if it converts at
+ * all, decided once per run and then shared by {@link RemoveCucumberJava8Dependency}, which asks whether anything is
+ * left behind, and the recipes doing the replacing, which would otherwise parse the same arguments all over again.
+ * A decision holds on to the invocation it was made for, so it is only kept until the recipe replacing that
+ * invocation {@link #take takes} it, rather than for the rest of the run. Only decisions to convert are kept at all,
+ * and whatever that recipe did not take of a source file is {@link #release released} once it is done with the file.
+ */
+final class LambdaGlueClassifications {
+
+    private static final String LAMBDA_GLUE_CLASSIFICATIONS = LambdaGlueClassifications.class.getName();
+
+    private final Map<Path, Map<UUID, Classification>> classifications = new ConcurrentHashMap<>();
+
+    static LambdaGlueClassifications of(ExecutionContext ctx) {
+        return ctx.computeMessageIfAbsent(LAMBDA_GLUE_CLASSIFICATIONS, key -> new LambdaGlueClassifications());
+    }
+
+    /**
+     * A decision is only reused for the very invocation it was made for. Where a recipe run earlier has since
+     * changed the invocation, such as by moving it to the `io.cucumber.java8` package, it is decided anew, the
+     * same id then standing for a different tree.
+     *
+     * @param enclosingClass the class the invocation is made in, which the types named by the replacing method are
+     *                       named relative to
+     */
+    Classification classify(J.MethodInvocation methodInvocation, Path sourcePath,
+            JavaType.@Nullable FullyQualified enclosingClass) {
+        Map<UUID, Classification> ofSourceFile = classifications.get(sourcePath);
+        Classification classification = ofSourceFile == null ? null : ofSourceFile.get(methodInvocation.getId());
+        if (classification == null || classification.getMethodInvocation() != methodInvocation) {
+            classification = Classification.of(methodInvocation, enclosingClass);
+            if (classification.converts()) {
+                classifications.computeIfAbsent(sourcePath, path -> new ConcurrentHashMap<>())
+                        .put(methodInvocation.getId(), classification);
+            } else if (ofSourceFile != null) {
+                ofSourceFile.remove(methodInvocation.getId());
+            }
+        }
+        return classification;
+    }
+
+    /**
+     * As {@link #classify}, for the recipe replacing the invocation, which is the last to need the decision and so
+     * lets go of it.
+     */
+    Classification take(J.MethodInvocation methodInvocation, Path sourcePath,
+            JavaType.@Nullable FullyQualified enclosingClass) {
+        Map<UUID, Classification> ofSourceFile = classifications.get(sourcePath);
+        Classification classification = ofSourceFile == null ? null : ofSourceFile.remove(methodInvocation.getId());
+        if (classification == null || classification.getMethodInvocation() != methodInvocation) {
+            classification = Classification.of(methodInvocation, enclosingClass);
+        }
+        return classification;
+    }
+
+    /**
+     * Lets go of the decisions of a kind on a source file once the recipe replacing that kind is done with the file,
+     * including those for invocations it never came to take, such as ones an earlier recipe has since changed.
+     */
+    void release(Path sourcePath, Kind kind) {
+        classifications.computeIfPresent(sourcePath, (path, decisions) -> {
+            decisions.values().removeIf(classification -> classification.getKind() == kind);
+            return decisions.isEmpty() ? null : decisions;
+        });
+    }
+
+    enum Kind {
+        STEP_DEFINITION,
+        HOOK_DEFINITION,
+        TYPE_DEFINITION,
+        NONE
+    }
+
+    @Value
+    static class Classification {
+        J.MethodInvocation methodInvocation;
+        Kind kind;
+
+        /**
+         * What the invocation is replaced with, or {@code null} where it is one to leave for a manual migration.
+         */
+        @Nullable
+        Object arguments;
+
+        static Classification of(J.MethodInvocation methodInvocation, JavaType.@Nullable FullyQualified enclosingClass) {
+            if (CucumberJava8StepDefinitionToCucumberJava.isStepDefinition(methodInvocation)) {
+                return new Classification(methodInvocation, Kind.STEP_DEFINITION,
+                        CucumberJava8StepDefinitionToCucumberJava.stepDefinitionArguments(methodInvocation,
+                                enclosingClass == null ? "" : enclosingClass.getPackageName()));
+            }
+            if (CucumberJava8HookDefinitionToCucumberJava.isHookDefinition(methodInvocation)) {
+                return new Classification(methodInvocation, Kind.HOOK_DEFINITION,
+                        CucumberJava8HookDefinitionToCucumberJava.parseHookArguments(methodInvocation));
+            }
+            if (CucumberJava8TypeDefinitionToCucumberJava.isTypeDefinition(methodInvocation)) {
+                return new Classification(methodInvocation, Kind.TYPE_DEFINITION,
+                        CucumberJava8TypeDefinitionToCucumberJava.parse(methodInvocation, enclosingClass));
+            }
+            return new Classification(methodInvocation, Kind.NONE, null);
+        }
+
+        /**
+         * @return whether one of the migration recipes replaces the invocation with an annotated method
+         */
+        boolean converts() {
+            return arguments != null;
+        }
+
+        @Nullable StepDefinitionArguments getStepDefinition() {
+            return kind == Kind.STEP_DEFINITION ? (StepDefinitionArguments) arguments : null;
+        }
+
+        @Nullable HookArguments getHookDefinition() {
+            return kind == Kind.HOOK_DEFINITION ? (HookArguments) arguments : null;
+        }
+
+        @Nullable TypeDefinitionArguments getTypeDefinition() {
+            return kind == Kind.TYPE_DEFINITION ? (TypeDefinitionArguments) arguments : null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the `LambdaGlue` registrations a class makes over the visit of that class, to then replace all of them in
+ * a single {@link CucumberJava8ClassVisitor} visit, rather than revisit the whole class for every single one. A
+ * class that ran over its {@link MigrationBudget} before is skipped.
+ */
+@RequiredArgsConstructor
+abstract class LambdaGlueVisitor extends JavaVisitor<ExecutionContext> {
+
+    private static final String GLUE_REGISTRATIONS = "cucumberGlueRegistrations";
+
+    /**
+     * The {@link MigrationBudget} of each class, unbounded where {@code null}.
+     */
+    private final @Nullable Duration classBudget;
+
+    /**
+     * The kind of `LambdaGlue` call replaced, the {@link LambdaGlueClassifications} of which are released with each
+     * source file visited.
+     */
+    private final LambdaGlueClassifications.Kind kind;
+
+    @Override
+    public J visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+        J compilationUnit = super.visitCompilationUnit(cu, ctx);
+        LambdaGlueClassifications.of(ctx).release(cu.getSourcePath(), kind);
+        return compilationUnit;
+    }
+
+    @Override
+    public J visitClassDeclaration(J.ClassDeclaration cd, ExecutionContext ctx) {
+        if (MigrationBudget.isMarkedExceeded(cd)) {
+            return cd;
+        }
+        MigrationBudget budget = MigrationBudget.start(classBudget);
+        List<GlueRegistration> registrations = new ArrayList<>();
+        if (cd.getType() != null) {
+            // Without a type there is no class for the annotated methods to be added to once the visit ends
+            getCursor().putMessage(GLUE_REGISTRATIONS, registrations);
+        }
+        J classDeclaration = super.visitClassDeclaration(cd, ctx);
+        if (!registrations.isEmpty() && cd.getType() != null) {
+            doAfterVisit(new CucumberJava8ClassVisitor(cd.getType(), registrations, cd, budget));
+        }
+        return classDeclaration;
+    }
+
+    /**
+     * Queues the registration to be replaced on the class it is made in, once the visit of that class ends; removing
+     * the registration itself is left to the caller.
+     *
+     * @param registered the `LambdaGlue` call being replaced, the body interface of which is no longer named once an
+     *                   anonymous class implementing it has moved to the annotated method
+     * @return whether the registration was queued, which it is not outside a class with a type; the caller then
+     * leaves the registration in place rather than remove one nothing replaces
+     */
+    protected boolean migrate(J.MethodInvocation registered, GlueRegistration registration, ExecutionContext ctx) {
+        List<GlueRegistration> registrations = getCursor().getNearestMessage(GLUE_REGISTRATIONS);
+        if (registrations == null) {
+            return false;
+        }
+        registrations.add(registration);
+        RecipeRunMetrics.of(ctx).lambdaGlueConverted();
+        for (Expression argument : registered.getArguments()) {
+            if (argument instanceof J.NewClass && ((J.NewClass) argument).getClazz() != null) {
+                // Nested body interfaces, such as `StepDefinitionBody.A1`, are imported through their owner
+                for (JavaType.FullyQualified bodyType = TypeUtils.asFullyQualified(
+                        ((J.NewClass) argument).getClazz().getType());
+                     bodyType != null; bodyType = bodyType.getOwningClass()) {
+                    maybeRemoveImport(bodyType);
+                }
+            }
+        }
+        return true;
+    }
+}
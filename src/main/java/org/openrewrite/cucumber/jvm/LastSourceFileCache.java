@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * What was worked out from the source file last asked about. Recipes visit a file one after the other, so only that
+ * one file is held on to, and then only for the very tree it was worked out from, as a recipe run before may well
+ * have changed the file; any other tree has it worked out again, in place of the one held on to.
+ */
+final class LastSourceFileCache<T> {
+
+    private final AtomicReference<@Nullable Entry<T>> last = new AtomicReference<>();
+
+    /**
+     * @return the cache kept under the key for the whole run
+     */
+    static <T> LastSourceFileCache<T> of(ExecutionContext ctx, String key) {
+        return ctx.computeMessageIfAbsent(key, k -> new LastSourceFileCache<>());
+    }
+
+    <S extends SourceFile> T computeIfAbsent(S sourceFile, Function<? super S, ? extends T> compute) {
+        Entry<T> entry = last.get();
+        if (entry == null || entry.getSourceFile() != sourceFile) {
+            entry = new Entry<>(sourceFile, compute.apply(sourceFile));
+            last.set(entry);
+        }
+        return entry.getValue();
+    }
+
+    @Value
+    private static class Entry<T> {
+        SourceFile sourceFile;
+        T value;
+    }
+}
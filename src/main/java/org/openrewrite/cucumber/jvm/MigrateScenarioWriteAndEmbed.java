@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.Markers;
+
+import java.util.List;
+
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class MigrateScenarioWriteAndEmbed extends Recipe {
+
+    private static final String IO_CUCUMBER_JAVA_SCENARIO = "io.cucumber.java.Scenario";
+    private static final String IO_CUCUMBER_JAVA8_SCENARIO = "io.cucumber.java8.Scenario";
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
+    String displayName = "Migrate `Scenario.write` and `Scenario.embed`";
+
+    String description = "Cucumber-JVM 6.0.0 removed `Scenario.write(String)` and `Scenario.embed(byte[], String)` " +
+            "along with `Scenario.embed(byte[], String, String)`, in favor of `Scenario.log(String)` and " +
+            "`Scenario.attach(byte[], String, String)`. The two argument `embed` emitted an attachment without a " +
+            "name, which `attach` expresses as a `null` name.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.SCENARIO),
+                new JavaIsoVisitor<ExecutionContext>() {
+
+                    @Override
+                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                        J.MethodInvocation mi = super.visitMethodInvocation(method, ctx);
+                        JavaType.Method methodType = mi.getMethodType();
+                        if (methodType == null || !isScenario(methodType.getDeclaringType())) {
+                            return mi;
+                        }
+                        String renamedTo = renamedTo(methodType);
+                        if (renamedTo != null) {
+                            return rename(mi, methodType, renamedTo);
+                        }
+                        List<JavaType> parameterTypes = methodType.getParameterTypes();
+                        if (isEmbed(methodType) && parameterTypes.size() == 2) {
+                            // The attachment `embed` emitted without a name, which `attach` takes as a `null` one
+                            JavaType.Method attach = methodType
+                                    .withParameterTypes(ListUtils.concat(parameterTypes, parameterTypes.get(1)))
+                                    .withParameterNames(ListUtils.concat(methodType.getParameterNames(), "name"));
+                            J.Literal nullName = new J.Literal(Tree.randomId(), Space.SINGLE_SPACE, Markers.EMPTY,
+                                    null, "null", null, JavaType.Primitive.Null);
+                            mi = mi.withArguments(ListUtils.concat(mi.getArguments(), nullName));
+                            return rename(mi, attach, "attach");
+                        }
+                        return mi;
+                    }
+
+                    /**
+                     * A method reference to `write` or the three argument `embed` keeps its functional shape under
+                     * the new name; one to the two argument `embed` has no `attach` of the same arity to refer to.
+                     */
+                    @Override
+                    public J.MemberReference visitMemberReference(J.MemberReference memberRef, ExecutionContext ctx) {
+                        J.MemberReference mr = super.visitMemberReference(memberRef, ctx);
+                        JavaType.Method methodType = mr.getMethodType();
+                        if (methodType == null || !isScenario(methodType.getDeclaringType())) {
+                            return mr;
+                        }
+                        String renamedTo = renamedTo(methodType);
+                        if (renamedTo == null) {
+                            return mr;
+                        }
+                        JavaType.Method renamed = methodType.withName(renamedTo);
+                        return mr.withReference(mr.getReference().withSimpleName(renamedTo).withType(renamed))
+                                .withMethodType(renamed);
+                    }
+                });
+    }
+
+    private static boolean isScenario(JavaType.@Nullable FullyQualified type) {
+        return TypeUtils.isOfClassType(type, IO_CUCUMBER_JAVA_SCENARIO) ||
+                TypeUtils.isOfClassType(type, IO_CUCUMBER_JAVA8_SCENARIO);
+    }
+
+    /**
+     * The name `write(String)` and `embed(byte[], String, String)` take as they are, or `null` for any other method.
+     */
+    private static @Nullable String renamedTo(JavaType.Method methodType) {
+        List<JavaType> parameterTypes = methodType.getParameterTypes();
+        if ("write".equals(methodType.getName()) && parameterTypes.size() == 1 &&
+                TypeUtils.isString(parameterTypes.get(0))) {
+            return "log";
+        }
+        if (isEmbed(methodType) && parameterTypes.size() == 3 && TypeUtils.isString(parameterTypes.get(2))) {
+            return "attach";
+        }
+        return null;
+    }
+
+    private static boolean isEmbed(JavaType.Method methodType) {
+        List<JavaType> parameterTypes = methodType.getParameterTypes();
+        return "embed".equals(methodType.getName()) && parameterTypes.size() >= 2 &&
+                isByteArray(parameterTypes.get(0)) && TypeUtils.isString(parameterTypes.get(1));
+    }
+
+    private static boolean isByteArray(@Nullable JavaType type) {
+        return type instanceof JavaType.Array && ((JavaType.Array) type).getElemType() == JavaType.Primitive.Byte;
+    }
+
+    private static J.MethodInvocation rename(J.MethodInvocation mi, JavaType.Method methodType, String name) {
+        JavaType.Method renamed = methodType.withName(name);
+        return mi.withName(mi.getName().withSimpleName(name).withType(renamed)).withMethodType(renamed);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Tree;
+import org.openrewrite.Validated;
+import org.openrewrite.marker.SearchResult;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The time the migration of a single class to `cucumber-java` may take, from the start of the visit collecting its
+ * `LambdaGlue` registrations to the last of the annotated methods replacing them. Only bounded where a duration is
+ * given, as the `classTimeBudget` option of the recipe migrating the class, in the ISO-8601 format of
+ * {@link Duration#parse}, such as `PT30S`.
+ * <p>
+ * A class running over it is left as it was to begin with, marked for a manual migration, and no recipe here visits
+ * it again; a handful of pathological classes then no longer stall the run over every other.
+ */
+final class MigrationBudget {
+
+    static final String BUDGET_EXCEEDED = "TODO Migrate manually, as the migration of this class ran over its " +
+            "time budget";
+
+    private static final MigrationBudget UNBOUNDED = new MigrationBudget(Long.MAX_VALUE);
+
+    /**
+     * The {@link System#nanoTime()} the budget runs out at.
+     */
+    private final long deadline;
+
+    private MigrationBudget(long deadline) {
+        this.deadline = deadline;
+    }
+
+    static MigrationBudget start(@Nullable Duration budget) {
+        return budget == null ? UNBOUNDED : new MigrationBudget(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * @return the duration of the option, or {@code null} where it is not given, or not a duration at all, which
+     * {@link #validate} has reported already; a run is not to be aborted over it
+     */
+    static @Nullable Duration parse(@Nullable String classTimeBudget) {
+        if (classTimeBudget == null || classTimeBudget.isEmpty()) {
+            return null;
+        }
+        try {
+            return Duration.parse(classTimeBudget);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static Validated<String> validate(@Nullable String classTimeBudget) {
+        return Validated.test("classTimeBudget", "must be an ISO-8601 duration, such as `PT30S`", classTimeBudget,
+                budget -> budget == null || budget.isEmpty() || parse(budget) != null);
+    }
+
+    boolean isExceeded() {
+        return this != UNBOUNDED && System.nanoTime() - deadline >= 0;
+    }
+
+    static <T extends Tree> T markExceeded(T tree) {
+        return SearchResult.found(tree, BUDGET_EXCEEDED);
+    }
+
+    static boolean isMarkedExceeded(Tree tree) {
+        return tree.getMarkers().findAll(SearchResult.class).stream()
+                .anyMatch(result -> BUDGET_EXCEEDED.equals(result.getDescription()));
+    }
+}
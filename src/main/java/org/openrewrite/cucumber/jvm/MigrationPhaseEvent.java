@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+/**
+ * A phase of the migration for Java Flight Recorder to time, such that a recording of a recipe run shows the Cucumber
+ * specific work by name rather than as anonymous visitor frames. Flight Recorder events only exist from Java 11 on, so
+ * the event recording a phase, {@code JfrMigrationPhaseEvent}, is compiled against this interface from
+ * {@code src/main/java11}, and carried by the jar under {@code META-INF/versions/11}; where that event does not load,
+ * as on Java 8, the phases go unrecorded.
+ */
+interface MigrationPhaseEvent {
+
+    String TEMPLATE_APPLICATION = "Template application";
+    String GLUE_DECLARATION_STATE = "Glue declaration state";
+    String RETYPE_NEW_METHOD = "Retype new method";
+    String LAMBDA_GLUE_SCAN = "Lambda glue scan";
+
+    /**
+     * @param subject the class the phase works on, or the path of the source file where the phase covers a whole file
+     */
+    static MigrationPhaseEvent start(String phase, String subject) {
+        return Recorder.FACTORY.start(phase, subject);
+    }
+
+    /**
+     * @param count the number of things, such as templates or methods, the phase went through
+     */
+    void end(int count);
+
+    interface Factory {
+        MigrationPhaseEvent start(String phase, String subject);
+    }
+
+    final class Recorder {
+
+        private static final String JFR_EVENT = "org.openrewrite.cucumber.jvm.JfrMigrationPhaseEvent";
+        private static final MigrationPhaseEvent NONE = count -> {
+        };
+
+        static final Factory FACTORY = factory();
+
+        private Recorder() {
+        }
+
+        private static Factory factory() {
+            try {
+                return Class.forName(JFR_EVENT).asSubclass(Factory.class).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Before Java 11, or from a build without the multi-release classes
+                return (phase, subject) -> NONE;
+            }
+        }
+    }
+}
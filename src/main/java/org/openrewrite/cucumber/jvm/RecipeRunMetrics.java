@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * What the recipe visiting a source file did to it, counted over the visit of that one file and then written to
+ * {@link CucumberRecipeRunMetrics}, where asked for through {@link #ENABLED}; only the files the precondition of the
+ * recipe holds for are recorded. The visitors doing the work find the count through the execution context, so none
+ * of them has to be handed it; outside of a {@link #measured} visit, what they count goes nowhere. The count is held
+ * per thread, as a run visiting files in parallel shares the one execution context between them. The after-visits
+ * the recipe's visitor scheduled are not counted by the visitors but read off it once its visit ends. Where a
+ * {@link ResultCache} is in use, a file the recipe left unchanged before is not visited at all.
+ */
+final class RecipeRunMetrics {
+
+    /**
+     * Whether to record the run metrics at all, as an execution context message or system property set to
+     * {@code true}; the table is left empty otherwise.
+     */
+    static final String ENABLED = "org.openrewrite.cucumber.jvm.runMetrics";
+
+    private static final ThreadLocal<RecipeRunMetrics> CURRENT = new ThreadLocal<>();
+
+    private int templateApplications;
+    private int afterVisitsScheduled;
+    private int lambdaGlueConverted;
+    private int lambdaGlueFlagged;
+
+    static boolean isEnabled(ExecutionContext ctx) {
+        return Boolean.parseBoolean(String.valueOf(ctx.getMessage(ENABLED, System.getProperty(ENABLED))));
+    }
+
+    static RecipeRunMetrics of(ExecutionContext ctx) {
+        RecipeRunMetrics metrics = CURRENT.get();
+        return metrics == null ? new RecipeRunMetrics() : metrics;
+    }
+
+    void templateApplied() {
+        templateApplications++;
+    }
+
+    void lambdaGlueConverted() {
+        lambdaGlueConverted++;
+    }
+
+    void lambdaGlueFlagged() {
+        lambdaGlueFlagged++;
+    }
+
+    /**
+     * Counts the registrations of a class abandoned over its {@link MigrationBudget} as flagged rather than converted.
+     */
+    void lambdaGlueAbandoned(int registrations) {
+        lambdaGlueConverted -= registrations;
+        lambdaGlueFlagged += registrations;
+    }
+
+    /**
+     * @return the visitor of the recipe, timing and counting the visit of each source file as a whole
+     */
+    static TreeVisitor<?, ExecutionContext> measured(Recipe recipe, CucumberRecipeRunMetrics table,
+                                                     TreeVisitor<?, ExecutionContext> visitor) {
+        return measured(recipe, table, null, visitor);
+    }
+
+    /**
+     * In place of {@link org.openrewrite.Preconditions#check}, such that only the source files the precondition holds
+     * for are timed and counted, rather than every file of the repository in every cycle.
+     *
+     * @return the visitor of the recipe, visiting the source files the precondition holds for, timing and counting
+     * the visit of each as a whole
+     */
+    static TreeVisitor<?, ExecutionContext> measured(Recipe recipe, CucumberRecipeRunMetrics table,
+                                                     @Nullable TreeVisitor<?, ExecutionContext> precondition,
+                                                     TreeVisitor<?, ExecutionContext> visitor) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+
+            @Override
+            public boolean isAcceptable(SourceFile sourceFile, ExecutionContext ctx) {
+                return (precondition == null || precondition.isAcceptable(sourceFile, ctx)) &&
+                        visitor.isAcceptable(sourceFile, ctx);
+            }
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                return measure(recipe, table, precondition, visitor, tree, ctx, () -> visitor.visit(tree, ctx));
+            }
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx, Cursor parent) {
+                return measure(recipe, table, precondition, visitor, tree, ctx,
+                        () -> visitor.visit(tree, ctx, parent));
+            }
+        };
+    }
+
+    private static @Nullable Tree measure(Recipe recipe, CucumberRecipeRunMetrics table,
+                                          @Nullable TreeVisitor<?, ExecutionContext> precondition,
+                                          TreeVisitor<?, ExecutionContext> visitor, @Nullable Tree tree,
+                                          ExecutionContext ctx, Supplier<@Nullable Tree> visit) {
+        if (!(tree instanceof SourceFile)) {
+            return visit.get();
+        }
+        if (precondition != null && precondition.visit(tree, ctx) == tree) {
+            return tree;
+        }
+        // Where the recipe takes no precondition here, a file of no use to any recipe of this module is left alone
+        // before hashing it
+        ResultCache cache = ResultCache.of(ctx);
+        @Nullable String key = cache == null || CucumberSourceClassification.of((SourceFile) tree, ctx).isEmpty() ?
+                null : cache.key(recipe, (SourceFile) tree);
+        if (key != null && cache.isUnchanged(key)) {
+            return tree;
+        }
+        Tree after = isEnabled(ctx) ? recorded(recipe, table, visitor, (SourceFile) tree, ctx, visit) : visit.get();
+        if (key != null && after == tree) {
+            cache.unchanged(key);
+        }
+        return after;
+    }
+
+    private static @Nullable Tree recorded(Recipe recipe, CucumberRecipeRunMetrics table,
+                                           TreeVisitor<?, ExecutionContext> visitor, SourceFile sourceFile,
+                                           ExecutionContext ctx, Supplier<@Nullable Tree> visit) {
+        // A recipe may run another of this module's recipes on the file, which counts apart from the one running it
+        RecipeRunMetrics outer = CURRENT.get();
+        RecipeRunMetrics metrics = new RecipeRunMetrics();
+        CURRENT.set(metrics);
+        long start = System.nanoTime();
+        Tree after;
+        try {
+            after = visit.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+        List<? extends TreeVisitor<?, ExecutionContext>> afterVisits = visitor.getAfterVisit();
+        metrics.afterVisitsScheduled = afterVisits == null ? 0 : afterVisits.size();
+        DataTableRows.insert(table, ctx, new CucumberRecipeRunMetrics.Row(
+                sourceFile.getSourcePath().toString(),
+                recipe.getName(),
+                ctx.getCycle(),
+                after != sourceFile,
+                System.nanoTime() - start,
+                metrics.templateApplications,
+                metrics.afterVisitsScheduled,
+                metrics.lambdaGlueConverted,
+                metrics.lambdaGlueFlagged));
+        return after;
+    }
+}
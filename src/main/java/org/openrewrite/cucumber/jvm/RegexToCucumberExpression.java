@@ -17,12 +17,12 @@ package org.openrewrite.cucumber.jvm;
 
 import lombok.Getter;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
@@ -35,10 +35,13 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
 public class RegexToCucumberExpression extends Recipe {
 
     private static final String IO_CUCUMBER_JAVA = "io.cucumber.java";
-    private static final String IO_CUCUMBER_JAVA_STEP_DEFINITION = "io.cucumber.java.*.*";
+
+    private final transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
 
     @Getter
     final String displayName = "Replace `cucumber-java` step definition regexes with Cucumber expressions";
@@ -51,7 +54,8 @@ public class RegexToCucumberExpression extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new UsesType<>(IO_CUCUMBER_JAVA_STEP_DEFINITION, null), new JavaIsoVisitor<ExecutionContext>() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.GLUE_ANNOTATIONS), new JavaIsoVisitor<ExecutionContext>() {
 
             @Override
             public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration m, ExecutionContext ctx) {
@@ -62,30 +66,21 @@ public class RegexToCucumberExpression extends Recipe {
         });
     }
 
-    private static J.Annotation replaceRegexWithCucumberExpression(
+    /**
+     * @return whether the given annotation is a `cucumber-java` step annotation with a regex, converted or not.
+     */
+    static boolean isRegexStep(J.Annotation annotation) {
+        return possibleExpression(annotation).isPresent();
+    }
+
+    static J.Annotation replaceRegexWithCucumberExpression(
             // For when we want to match regexes with method arguments for
             // replacement cucumber expressions
             // https://github.com/cucumber/cucumber-expressions#parameter-types
             J.MethodDeclaration methodDeclaration,
             J.Annotation annotation
     ) {
-        // Skip if not a cucumber annotation
-        JavaType.FullyQualified annoFqn = TypeUtils.asFullyQualified(annotation.getType());
-        if (annoFqn == null || !annoFqn.getPackageName().startsWith(IO_CUCUMBER_JAVA)) {
-            return annotation;
-        }
-
-        List<Expression> arguments = annotation.getArguments();
-        Optional<String> possibleExpression = Stream.of(arguments)
-                .filter(Objects::nonNull)
-                .filter(list -> list.size() == 1)
-                .flatMap(Collection::stream)
-                .filter(J.Literal.class::isInstance)
-                .map(J.Literal.class::cast)
-                .map(l -> (String) l.getValue())
-                // https://github.com/cucumber/cucumber-expressions/blob/main/java/heuristics.adoc
-                .filter(s -> s != null && (s.startsWith("^") || s.endsWith("$") || leadingAndTrailingSlash(s)))
-                .findFirst();
+        Optional<String> possibleExpression = possibleExpression(annotation);
         if (!possibleExpression.isPresent()) {
             return annotation;
         }
@@ -106,6 +101,26 @@ public class RegexToCucumberExpression extends Recipe {
                 .withValueSource(finalReplacement)));
     }
 
+    private static Optional<String> possibleExpression(J.Annotation annotation) {
+        // Skip if not a cucumber annotation
+        JavaType.FullyQualified annoFqn = TypeUtils.asFullyQualified(annotation.getType());
+        if (annoFqn == null || !annoFqn.getPackageName().startsWith(IO_CUCUMBER_JAVA)) {
+            return Optional.empty();
+        }
+
+        List<Expression> arguments = annotation.getArguments();
+        return Stream.of(arguments)
+                .filter(Objects::nonNull)
+                .filter(list -> list.size() == 1)
+                .flatMap(Collection::stream)
+                .filter(J.Literal.class::isInstance)
+                .map(J.Literal.class::cast)
+                .map(l -> (String) l.getValue())
+                // https://github.com/cucumber/cucumber-expressions/blob/main/java/heuristics.adoc
+                .filter(s -> s != null && (s.startsWith("^") || s.endsWith("$") || leadingAndTrailingSlash(s)))
+                .findFirst();
+    }
+
     private static String stripAnchors(final String initialExpression) {
         if (leadingAndTrailingSlash(initialExpression)) {
             return initialExpression.substring(1, initialExpression.length() - 1);
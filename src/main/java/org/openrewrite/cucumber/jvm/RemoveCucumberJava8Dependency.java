@@ -15,20 +15,35 @@
  */
 package org.openrewrite.cucumber.jvm;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Option;
+import org.openrewrite.Preconditions;
 import org.openrewrite.ScanningRecipe;
+import org.openrewrite.SourceFile;
 import org.openrewrite.Tree;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.Validated;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.TypeUtils;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
+
 @EqualsAndHashCode(callSuper = false)
 @Value
 public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean> {
@@ -39,6 +54,17 @@ public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean>
     private static final String IO_CUCUMBER_JAVA8_LAMBDA_GLUE = "io.cucumber.java8.LambdaGlue";
     private static final String IO_CUCUMBER_JAVA8_SCENARIO = "io.cucumber.java8.Scenario";
     private static final String IO_CUCUMBER_JAVA8_STATUS = "io.cucumber.java8.Status";
+    private static final String CONVERTED_GLUE = "cucumberConvertedGlue";
+
+    @Option(displayName = "Class time budget",
+            description = "The class time budget the recipes migrating the glue run on, if any. Where given, " +
+                    "`cucumber-java8` is kept, as a class running over it is only known once the migration has run.",
+            example = "PT30S",
+            required = false)
+    @Nullable
+    String classTimeBudget;
+
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
 
     String displayName = "Remove `cucumber-java8` once nothing is left needing it";
 
@@ -46,7 +72,22 @@ public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean>
             "`cucumber-java`, and retains it wherever one is left behind. Read from the glue as it stands before " +
             "the migration, as what the migration leaves behind only becomes visible to a scanning recipe in the " +
             "cycle after, which a build tool run never reaches. Glue left anywhere retains the dependency " +
-            "everywhere, an unused dependency being the one outcome here that still compiles.";
+            "everywhere, an unused dependency being the one outcome here that still compiles, and a class left " +
+            "as it was over its time budget counts as glue left.";
+
+    public RemoveCucumberJava8Dependency() {
+        this(null);
+    }
+
+    @JsonCreator
+    public RemoveCucumberJava8Dependency(@Nullable String classTimeBudget) {
+        this.classTimeBudget = classTimeBudget;
+    }
+
+    @Override
+    public Validated<Object> validate() {
+        return super.validate().and(MigrationBudget.validate(classTimeBudget));
+    }
 
     @Override
     public AtomicBoolean getInitialValue(ExecutionContext ctx) {
@@ -55,19 +96,101 @@ public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean>
 
     @Override
     public TreeVisitor<?, ExecutionContext> getScanner(AtomicBoolean lambdaGlueRemains) {
-        return new JavaIsoVisitor<ExecutionContext>() {
+        // Only a source file using `io.cucumber.java8` has any glue to leave behind
+        return Preconditions.check(classifiedAs(Kind.LAMBDA_GLUE), new JavaIsoVisitor<ExecutionContext>() {
+
+            private int lambdaGlueScanned;
+
+            /**
+             * The imports of the file, held back until the rest of it is scanned, by which time the body interfaces
+             * the migration removes the import of are known.
+             */
+            private final List<J.Import> imports = new ArrayList<>();
+
+            /**
+             * The body interfaces of the anonymous classes passed to converted glue, and the types those are nested
+             * in, which the migration removes the import of once nothing else refers to them.
+             */
+            private final Set<String> movedBodyTypes = new HashSet<>();
+
+            private boolean holdingBackImports;
 
             @Override
-            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, ExecutionContext ctx) {
-                if (isLambdaGlue(mi) &&
-                        !CucumberJava8StepDefinitionToCucumberJava.converts(mi) &&
-                        !CucumberJava8HookDefinitionToCucumberJava.converts(mi) &&
-                        !CucumberJava8TypeDefinitionToCucumberJava.converts(mi)) {
+            public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof JavaSourceFile)) {
+                    return super.visit(tree, ctx);
+                }
+                MigrationPhaseEvent scan = MigrationPhaseEvent.start(MigrationPhaseEvent.LAMBDA_GLUE_SCAN,
+                        ((JavaSourceFile) tree).getSourcePath().toString());
+                lambdaGlueScanned = 0;
+                imports.clear();
+                movedBodyTypes.clear();
+                holdingBackImports = true;
+                J j = super.visit(tree, ctx);
+                holdingBackImports = false;
+                Cursor sourceFile = new Cursor(new Cursor(null, Cursor.ROOT_VALUE), tree);
+                for (J.Import anImport : imports) {
+                    if (anImport.isStatic() || !movedBodyTypes.contains(anImport.getTypeName())) {
+                        visit(anImport, ctx, sourceFile);
+                    }
+                }
+                scan.end(lambdaGlueScanned);
+                return j;
+            }
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, ExecutionContext ctx) {
+                // Left as it was by a migration that ran over its budget before, and never visited again
+                if (MigrationBudget.isMarkedExceeded(cd)) {
                     lambdaGlueRemains.set(true);
+                    return cd;
+                }
+                return super.visitClassDeclaration(cd, ctx);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, ExecutionContext ctx) {
+                if (isLambdaGlue(mi)) {
+                    lambdaGlueScanned++;
+                    J.ClassDeclaration enclosingClass = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                    if (!LambdaGlueClassifications.of(ctx)
+                            .classify(mi, getCursor().firstEnclosingOrThrow(SourceFile.class).getSourcePath(),
+                                    enclosingClass == null ? null : enclosingClass.getType())
+                            .converts()) {
+                        lambdaGlueRemains.set(true);
+                    } else {
+                        getCursor().putMessage(CONVERTED_GLUE, true);
+                    }
                 }
                 return super.visitMethodInvocation(mi, ctx);
             }
 
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+                // The body interface an anonymous class passed to converted glue implements goes along with it,
+                // whereas whatever its method refers to moves to the annotated method
+                if (newClass.getBody() != null &&
+                        getCursor().getParentTreeCursor().getMessage(CONVERTED_GLUE, false)) {
+                    for (JavaType.FullyQualified bodyType = newClass.getClazz() == null ? null :
+                            TypeUtils.asFullyQualified(newClass.getClazz().getType());
+                         bodyType != null; bodyType = bodyType.getOwningClass()) {
+                        movedBodyTypes.add(bodyType.getFullyQualifiedName());
+                    }
+                    visit(newClass.getBody(), ctx);
+                    return newClass;
+                }
+                return super.visitNewClass(newClass, ctx);
+            }
+
+            @Override
+            public J.Import visitImport(J.Import anImport, ExecutionContext ctx) {
+                if (holdingBackImports) {
+                    imports.add(anImport);
+                    return anImport;
+                }
+                return super.visitImport(anImport, ctx);
+            }
+
             @Override
             public J.Identifier visitIdentifier(J.Identifier identifier, ExecutionContext ctx) {
                 flagTypeWithNowhereToGo(identifier.getType());
@@ -92,8 +215,8 @@ public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean>
             /**
              * The language interfaces go the way of the glue they contribute, and `Scenario` and `Status` are
              * retyped to their `cucumber-java` counterparts; any other `io.cucumber.java8` type named in the
-             * source, such as a `HookBody` written as an anonymous class, has nowhere to go and keeps needing
-             * the dependency.
+             * source, such as a `HookBody` written as an anonymous class the migration leaves behind, has nowhere
+             * to go and keeps needing the dependency.
              */
             private void flagTypeWithNowhereToGo(@Nullable JavaType type) {
                 JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(type);
@@ -105,16 +228,18 @@ public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean>
                     lambdaGlueRemains.set(true);
                 }
             }
-        };
+        });
     }
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor(AtomicBoolean lambdaGlueRemains) {
-        return new TreeVisitor<Tree, ExecutionContext>() {
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.BUILD_FILE), new TreeVisitor<Tree, ExecutionContext>() {
 
             @Override
             public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
-                if (lambdaGlueRemains.get()) {
+                // A class the migration abandons in this very cycle only shows in the cycle after
+                if (lambdaGlueRemains.get() || MigrationBudget.parse(classTimeBudget) != null) {
                     return tree;
                 }
                 // Offered to both, as either leaves alone whatever is not the build file it reads
@@ -123,6 +248,6 @@ public class RemoveCucumberJava8Dependency extends ScanningRecipe<AtomicBoolean>
                 return new org.openrewrite.gradle.RemoveDependency(IO_CUCUMBER, CUCUMBER_JAVA8, null)
                         .getVisitor().visit(afterMaven, ctx);
             }
-        };
+        });
     }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.ScanningRecipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.OptionDescriptor;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The source files a recipe left as they were, without so much as a `TODO Migrate manually` marker, kept on disk from
+ * one run to the next, such that a file unchanged since is not visited again by that recipe. Only used where a
+ * directory is given, as the {@link #DIRECTORY} system property or execution context message, and bounded to
+ * {@link #MAX_ENTRIES} entries, evicting those least recently hit first.
+ * <p>
+ * A file is known by the recipe and the options it is configured with, the version of this module, its path, its
+ * printed content and the types on the classpath of its source set, such that a change of dependencies adding or
+ * removing a type is a miss for every file compiled against them. Outside of a released jar, no version is known to
+ * tell one build of this module from the next, so the cache is not used at all unless one is given as the
+ * {@link #VERSION} system property or execution context message.
+ * <p>
+ * A hit only reads the cache; where the cache can be written, the entry hit is touched as well, which is the recency
+ * eviction goes by. A cache that cannot be written still hits, and, as nothing is ever added to it, evicts nothing.
+ */
+final class ResultCache {
+
+    static final String DIRECTORY = "org.openrewrite.cucumber.jvm.resultCache";
+    static final String MAX_ENTRIES = "org.openrewrite.cucumber.jvm.resultCache.maxEntries";
+    static final String VERSION = "org.openrewrite.cucumber.jvm.resultCache.version";
+
+    private static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final Path directory;
+    private final String version;
+    private final int maxEntries;
+    private final AtomicInteger entries;
+    private final LastSourceFileCache<byte[]> contentHashes = new LastSourceFileCache<>();
+
+    /**
+     * The hash of the name and options of each recipe, which every file it visits shares.
+     */
+    private final Map<Recipe, byte[]> recipeHashes = new ConcurrentHashMap<>();
+
+    /**
+     * The hash of the classpath of each source set, by the id of its marker, which all the files of the set share.
+     */
+    private final Map<UUID, byte[]> classpathHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Cleared on the first hit failing to touch its entry, after which hits no longer try.
+     */
+    private volatile boolean writable = true;
+
+    private ResultCache(Path directory, String version, int maxEntries) {
+        this.directory = directory;
+        this.version = version;
+        this.maxEntries = maxEntries;
+        this.entries = new AtomicInteger(count(directory));
+    }
+
+    static @Nullable ResultCache of(ExecutionContext ctx) {
+        Object directory = ctx.getMessage(DIRECTORY, System.getProperty(DIRECTORY));
+        if (directory == null || directory.toString().isEmpty()) {
+            return null;
+        }
+        String implementationVersion = ResultCache.class.getPackage().getImplementationVersion();
+        Object version = implementationVersion == null ?
+                ctx.getMessage(VERSION, System.getProperty(VERSION)) : implementationVersion;
+        if (version == null || version.toString().isEmpty()) {
+            return null;
+        }
+        return ctx.computeMessageIfAbsent(ResultCache.class.getName(), key -> {
+            Object maxEntries = ctx.getMessage(MAX_ENTRIES, System.getProperty(MAX_ENTRIES));
+            return new ResultCache(Paths.get(directory.toString()), version.toString(),
+                    maxEntries == null ? DEFAULT_MAX_ENTRIES : Integer.parseInt(maxEntries.toString()));
+        });
+    }
+
+    /**
+     * @return the key the recipe's outcome on the file is kept under, or {@code null} for a recipe whose outcome on
+     * one file depends on what it scanned of the others
+     */
+    @Nullable String key(Recipe recipe, SourceFile sourceFile) {
+        if (recipe instanceof ScanningRecipe) {
+            return null;
+        }
+        MessageDigest digest = sha256();
+        digest.update(recipeHash(recipe));
+        digest.update((byte) 0);
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(sourceFile.getSourcePath().toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(contentHash(sourceFile));
+        digest.update((byte) 0);
+        digest.update(classpathHash(sourceFile));
+        return hex(digest.digest());
+    }
+
+    /**
+     * @return whether the recipe left the file unchanged before, in which case the hit is what keeps it from eviction
+     */
+    boolean isUnchanged(String key) {
+        Path entry = entry(key);
+        if (!Files.exists(entry)) {
+            return false;
+        }
+        if (writable) {
+            try {
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // A cache shared read-only, which is still a hit
+                writable = false;
+            }
+        }
+        return true;
+    }
+
+    void unchanged(String key) {
+        Path entry = entry(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Files.createFile(entry);
+        } catch (IOException e) {
+            // Already there from a run alongside, or not to be written, which only costs the next run a visit
+            return;
+        }
+        if (entries.incrementAndGet() > maxEntries) {
+            evict();
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2));
+    }
+
+    private byte[] contentHash(SourceFile sourceFile) {
+        return contentHashes.computeIfAbsent(sourceFile,
+                s -> sha256().digest(s.printAll().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private byte[] recipeHash(Recipe recipe) {
+        return recipeHashes.computeIfAbsent(recipe, r -> {
+            MessageDigest digest = sha256();
+            digest.update(r.getName().getBytes(StandardCharsets.UTF_8));
+            for (OptionDescriptor option : r.getDescriptor().getOptions()) {
+                digest.update((byte) 0);
+                digest.update(option.getName().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(String.valueOf(option.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+            return digest.digest();
+        });
+    }
+
+    private byte[] classpathHash(SourceFile sourceFile) {
+        JavaSourceSet sourceSet = sourceFile.getMarkers().findFirst(JavaSourceSet.class).orElse(null);
+        if (sourceSet == null) {
+            return new byte[0];
+        }
+        return classpathHashes.computeIfAbsent(sourceSet.getId(), id -> {
+            List<String> typeNames = new ArrayList<>(sourceSet.getClasspath().size());
+            for (JavaType.FullyQualified type : sourceSet.getClasspath()) {
+                typeNames.add(type.getFullyQualifiedName());
+            }
+            Collections.sort(typeNames);
+            MessageDigest digest = sha256();
+            for (String typeName : typeNames) {
+                digest.update(typeName.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return digest.digest();
+        });
+    }
+
+    /**
+     * Evicts the entries least recently hit down to nine tenths of the bound, so as not to evict again on the very
+     * next entry.
+     */
+    private synchronized void evict() {
+        if (entries.get() <= maxEntries) {
+            return;
+        }
+        List<Path> leastRecentlyHitFirst;
+        try (Stream<Path> files = Files.walk(directory)) {
+            leastRecentlyHitFirst = files
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(ResultCache::lastModified))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            return;
+        }
+        int evict = leastRecentlyHitFirst.size() - maxEntries * 9 / 10;
+        for (int i = 0; i < evict; i++) {
+            try {
+                Files.deleteIfExists(leastRecentlyHitFirst.get(i));
+            } catch (IOException ignored) {
+                // Left for the next eviction
+            }
+        }
+        entries.set(count(directory));
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static int count(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return (int) files.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
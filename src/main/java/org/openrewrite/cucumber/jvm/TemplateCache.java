@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.JavaTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The glue methods the migration generates come in only a handful of shapes, the annotation, name, parameters and
+ * body all being passed in as template parameters, so each shape is built into a template once per run and then
+ * applied to every registration of that shape, rather than built anew for every single one.
+ */
+final class TemplateCache {
+
+    private static final String TEMPLATE_CACHE = TemplateCache.class.getName();
+
+    private final Map<Shape, JavaTemplate> templates = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    static TemplateCache of(ExecutionContext ctx) {
+        return ctx.computeMessageIfAbsent(TEMPLATE_CACHE, key -> new TemplateCache());
+    }
+
+    /**
+     * @param resources the type tables the template is parsed against, as handed to {@link TemplateParsers}
+     */
+    JavaTemplate contextSensitive(ExecutionContext ctx, String code, Collection<String> imports, String... resources) {
+        return template(ctx, new Shape(code, true, new TreeSet<>(imports), Arrays.asList(resources)));
+    }
+
+    /**
+     * For a template whose every type resolves against its own imports and classpath, and so can be parsed without
+     * reprinting the compilation unit it is applied to around it.
+     */
+    JavaTemplate contextFree(ExecutionContext ctx, String code, Collection<String> imports, String... resources) {
+        return template(ctx, new Shape(code, false, new TreeSet<>(imports), Arrays.asList(resources)));
+    }
+
+    private JavaTemplate template(ExecutionContext ctx, Shape shape) {
+        JavaTemplate template = templates.get(shape);
+        if (template != null) {
+            hits.incrementAndGet();
+            return template;
+        }
+        return templates.computeIfAbsent(shape, key -> {
+            misses.incrementAndGet();
+            JavaTemplate.Builder builder = JavaTemplate.builder(shape.getCode())
+                    .javaParser(TemplateParsers.fromResources(ctx, shape.getClasspath().toArray(new String[0])))
+                    .imports(shape.getImports().toArray(new String[0]));
+            return (shape.isContextSensitive() ? builder.contextSensitive() : builder).build();
+        });
+    }
+
+    /**
+     * @return how many templates were taken from the cache rather than built
+     */
+    int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return how many templates were built, which is one for every distinct shape applied during the run
+     */
+    int getMisses() {
+        return misses.get();
+    }
+
+    @Value
+    private static class Shape {
+        String code;
+        boolean contextSensitive;
+        SortedSet<String> imports;
+        List<String> classpath;
+    }
+}
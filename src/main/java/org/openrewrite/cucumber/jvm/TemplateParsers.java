@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.JavaParser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parsers the templates of the recipes in this module are compiled with. Resolving a classpath from the type
+ * tables shipped as resources unpacks and reads those tables, which is the same work for every class a recipe
+ * touches, so each classpath is resolved only once per run and then shared by all the recipes asking for it.
+ */
+final class TemplateParsers {
+
+    private static final String TEMPLATE_PARSERS = TemplateParsers.class.getName() + ".parsers";
+
+    private TemplateParsers() {
+    }
+
+    /**
+     * @param resources the type tables to put on the classpath, by their `<artifactId>-<major>` resource name
+     */
+    static JavaParser.Builder<?, ?> fromResources(ExecutionContext ctx, String... resources) {
+        Map<List<String>, JavaParser.Builder<?, ?>> parsers =
+                ctx.computeMessageIfAbsent(TEMPLATE_PARSERS, key -> new ConcurrentHashMap<>());
+        return parsers.computeIfAbsent(Arrays.asList(resources),
+                key -> JavaParser.fromJavaVersion().classpathFromResources(ctx, resources));
+    }
+}
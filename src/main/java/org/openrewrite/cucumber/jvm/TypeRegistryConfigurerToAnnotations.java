@@ -21,12 +21,12 @@ import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.*;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.staticanalysis.RemoveUnneededBlock;
 import org.openrewrite.staticanalysis.UnnecessaryThrows;
@@ -38,6 +38,7 @@ import java.util.*;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static org.openrewrite.cucumber.jvm.CucumberSourceClassification.classifiedAs;
 import static org.openrewrite.cucumber.jvm.GlueMethods.PARAMETER_TYPE_IMPORTS;
 import static org.openrewrite.cucumber.jvm.GlueMethods.decapitalize;
 import static org.openrewrite.cucumber.jvm.GlueMethods.declaredMethodNames;
@@ -67,7 +68,7 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
     private static final String IO_CUCUMBER_JAVA_DATA_TABLE_TYPE = IO_CUCUMBER_JAVA + "DataTableType";
     private static final String IO_CUCUMBER_JAVA_DOC_STRING_TYPE = IO_CUCUMBER_JAVA + "DocStringType";
 
-    private static final List<String> OBSOLETE_IMPORTS = Arrays.asList(
+    private static final List<String> OBSOLETE_IMPORTS = Collections.unmodifiableList(Arrays.asList(
             "cucumber.api.TypeRegistry",
             "cucumber.api.TypeRegistryConfigurer",
             "io.cucumber.core.api.TypeRegistry",
@@ -84,34 +85,38 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
             "io.cucumber.datatable.TableRowTransformer",
             "io.cucumber.datatable.TableTransformer",
             "io.cucumber.docstring.DocStringType",
-            "java.util.Locale");
+            "java.util.Locale"));
 
     /**
      * The parameters the annotated method replacing each transformer interface takes, for lambdas that leave their
      * types implicit and method references that name no parameters at all. Only the parameters the annotation
      * accepts are listed, which is fewer than the interface declares for {@code TableEntryByTypeTransformer}.
      */
-    private static final Map<String, List<String>> TRANSFORMER_PARAMETERS = new HashMap<>();
+    private static final Map<String, List<String>> TRANSFORMER_PARAMETERS;
 
     /**
      * The trailing `ParameterType` constructor arguments, in order, as the annotation attributes they become.
      */
-    private static final List<String> PARAMETER_TYPE_FLAGS = asList(
-            "useForSnippets", "preferForRegexMatch", "useRegexpMatchAsStrongTypeHint");
+    private static final List<String> PARAMETER_TYPE_FLAGS = Collections.unmodifiableList(asList(
+            "useForSnippets", "preferForRegexMatch", "useRegexpMatchAsStrongTypeHint"));
 
     static {
-        TRANSFORMER_PARAMETERS.put("io.cucumber.cucumberexpressions.CaptureGroupTransformer", singletonList("String[] values"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.cucumberexpressions.ParameterByTypeTransformer", asList("String fromValue", "Type toValueType"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.cucumberexpressions.Transformer", singletonList("String value"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.datatable.TableCellByTypeTransformer", asList("String fromValue", "Type toValueType"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.datatable.TableCellTransformer", singletonList("String cell"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.datatable.TableEntryByTypeTransformer", asList("Map<String, String> fromValue", "Type toValueType"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.datatable.TableEntryTransformer", singletonList("Map<String, String> entry"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.datatable.TableRowTransformer", singletonList("List<String> row"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.datatable.TableTransformer", singletonList("DataTable table"));
-        TRANSFORMER_PARAMETERS.put("io.cucumber.docstring.DocStringType$Transformer", singletonList("String docString"));
+        Map<String, List<String>> transformerParameters = new HashMap<>();
+        transformerParameters.put("io.cucumber.cucumberexpressions.CaptureGroupTransformer", singletonList("String[] values"));
+        transformerParameters.put("io.cucumber.cucumberexpressions.ParameterByTypeTransformer", asList("String fromValue", "Type toValueType"));
+        transformerParameters.put("io.cucumber.cucumberexpressions.Transformer", singletonList("String value"));
+        transformerParameters.put("io.cucumber.datatable.TableCellByTypeTransformer", asList("String fromValue", "Type toValueType"));
+        transformerParameters.put("io.cucumber.datatable.TableCellTransformer", singletonList("String cell"));
+        transformerParameters.put("io.cucumber.datatable.TableEntryByTypeTransformer", asList("Map<String, String> fromValue", "Type toValueType"));
+        transformerParameters.put("io.cucumber.datatable.TableEntryTransformer", singletonList("Map<String, String> entry"));
+        transformerParameters.put("io.cucumber.datatable.TableRowTransformer", singletonList("List<String> row"));
+        transformerParameters.put("io.cucumber.datatable.TableTransformer", singletonList("DataTable table"));
+        transformerParameters.put("io.cucumber.docstring.DocStringType$Transformer", singletonList("String docString"));
+        TRANSFORMER_PARAMETERS = Collections.unmodifiableMap(transformerParameters);
     }
 
+    transient CucumberRecipeRunMetrics runMetrics = new CucumberRecipeRunMetrics(this);
+
     String displayName = "Replace `TypeRegistryConfigurer` with cucumber-java annotations";
 
     String description = "Cucumber-JVM 7.0.0 removed `TypeRegistryConfigurer`; replace implementations with " +
@@ -123,24 +128,17 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
-                new UsesType<>(TYPE_REGISTRY_CONFIGURER.getSignature(), true),
+        return RecipeRunMetrics.measured(this, runMetrics,
+                classifiedAs(Kind.TYPE_REGISTRY_CONFIGURER),
                 new JavaIsoVisitor<ExecutionContext>() {
                     @Override
                     public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration cd, ExecutionContext ctx) {
                         J.ClassDeclaration c = super.visitClassDeclaration(cd, ctx);
-                        if (c.getImplements() == null || c.getImplements().stream()
-                                .noneMatch(TYPE_REGISTRY_CONFIGURER::matches)) {
+                        if (!isTypeRegistryConfigurer(c)) {
                             return c;
                         }
 
-                        J.MethodDeclaration configureTypeRegistry = null;
-                        for (Statement statement : c.getBody().getStatements()) {
-                            if (statement instanceof J.MethodDeclaration &&
-                                    CONFIGURE_TYPE_REGISTRY.matches((J.MethodDeclaration) statement, c)) {
-                                configureTypeRegistry = (J.MethodDeclaration) statement;
-                            }
-                        }
+                        J.MethodDeclaration configureTypeRegistry = configureTypeRegistry(c);
                         if (configureTypeRegistry == null || configureTypeRegistry.getBody() == null) {
                             // No registration to comment, so flag the class; the blank line the class is
                             // separated from the imports by would otherwise land between the two
@@ -175,8 +173,10 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
                                         s -> s == removedConfigureTypeRegistry || isLocaleMethod(s) ? null : s)));
                         OBSOLETE_IMPORTS.forEach(this::maybeRemoveImport);
 
-                        JavaParser.Builder<?, ?> javaParser = JavaParser.fromJavaVersion()
-                                .classpathFromResources(ctx, "cucumber-java-7");
+                        JavaParser.Builder<?, ?> javaParser = TemplateParsers.fromResources(ctx, "cucumber-java-7");
+                        MigrationPhaseEvent templateApplication = MigrationPhaseEvent.start(
+                                MigrationPhaseEvent.TEMPLATE_APPLICATION,
+                                c.getType() == null ? c.getSimpleName() : c.getType().getFullyQualifiedName());
                         for (GlueMethod glueMethod : glueMethods) {
                             maybeAddImport(glueMethod.getAnnotationImport());
                             List<String> imports = new ArrayList<>();
@@ -191,9 +191,11 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
                                     .imports(imports.toArray(new String[0]))
                                     .build()
                                     .apply(updateCursor(c), c.getBody().getCoordinates().lastStatement(), glueMethod.templateArguments());
+                            RecipeRunMetrics.of(ctx).templateApplied();
                             c = c.withBody(c.getBody().withStatements(ListUtils.mapLast(c.getBody().getStatements(),
                                     s -> completeGlueMethod(s, glueMethod))));
                         }
+                        templateApplication.end(glueMethods.size());
 
                         doAfterVisit(new RemoveUnneededBlock().getVisitor());
                         doAfterVisit(new UnnecessaryThrows().getVisitor());
@@ -287,14 +289,10 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
                     }
 
                     private @Nullable GlueMethod glueMethod(Statement statement, Set<String> methodNames, Locals locals) {
-                        if (!(statement instanceof J.MethodInvocation)) {
+                        if (!isConvertible(statement)) {
                             return null;
                         }
                         J.MethodInvocation definition = (J.MethodInvocation) statement;
-                        if (definition.getSelect() == null || !TYPE_REGISTRY.matches(definition.getSelect().getType()) ||
-                                definition.getArguments().size() != 1) {
-                            return null;
-                        }
                         Expression argument = locals.read(definition.getArguments().get(0));
                         switch (definition.getSimpleName()) {
                             case "setDefaultParameterTransformer":
@@ -525,6 +523,60 @@ public class TypeRegistryConfigurerToAnnotations extends Recipe {
                 });
     }
 
+    static boolean isTypeRegistryConfigurer(J.ClassDeclaration c) {
+        return c.getImplements() != null && c.getImplements().stream().anyMatch(TYPE_REGISTRY_CONFIGURER::matches);
+    }
+
+    static J.@Nullable MethodDeclaration configureTypeRegistry(J.ClassDeclaration c) {
+        J.MethodDeclaration configureTypeRegistry = null;
+        for (Statement statement : c.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration &&
+                    CONFIGURE_TYPE_REGISTRY.matches((J.MethodDeclaration) statement, c)) {
+                configureTypeRegistry = (J.MethodDeclaration) statement;
+            }
+        }
+        return configureTypeRegistry;
+    }
+
+    /**
+     * Whether a statement of `configureTypeRegistry` is a registration of a kind there is an annotation for. Whether
+     * it converts in the end also depends on the arguments it registers, so this is what an estimate goes by.
+     */
+    static boolean isConvertible(Statement statement) {
+        if (!(statement instanceof J.MethodInvocation)) {
+            return false;
+        }
+        J.MethodInvocation definition = (J.MethodInvocation) statement;
+        if (definition.getSelect() == null || !TYPE_REGISTRY.matches(definition.getSelect().getType()) ||
+                definition.getArguments().size() != 1) {
+            return false;
+        }
+        switch (definition.getSimpleName()) {
+            case "setDefaultParameterTransformer":
+            case "setDefaultDataTableCellTransformer":
+            case "setDefaultDataTableEntryTransformer":
+            case "defineParameterType":
+            case "defineDataTableType":
+            case "defineDocStringType":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the registrations `configureTypeRegistry` makes, leaving out the local variables it declares
+     */
+    static int registrations(J.Block configureTypeRegistry) {
+        int registrations = 0;
+        for (Statement statement : configureTypeRegistry.getStatements()) {
+            if (!(statement instanceof J.VariableDeclarations)) {
+                registrations++;
+            }
+        }
+        return registrations;
+    }
+
     private static boolean isReferenced(J body, J.Identifier name) {
         return !VariableReferences.findRhsReferences(body, name).isEmpty() ||
                 !VariableReferences.findLhsReferences(body, name).isEmpty();
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Tree;
+import org.openrewrite.cucumber.jvm.LambdaGlueClassifications.Kind;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The one precondition of the step, hook and type definition recipes. The methods a source file uses are read once,
+ * for whichever of those recipes asks first, and what that read found then answers the other two as well; a file
+ * calling nothing of `io.cucumber.java8`, which is most of them, is dismissed on the package of each method it uses.
+ */
+@RequiredArgsConstructor
+final class UsesCucumberJava8 extends JavaIsoVisitor<ExecutionContext> {
+
+    private static final String CUCUMBER_JAVA8_USAGE = UsesCucumberJava8.class.getName();
+    private static final String IO_CUCUMBER_JAVA8 = "io.cucumber.java8";
+    private static final String CUCUMBER_API_JAVA8 = "cucumber.api.java8";
+    private static final String IO_CUCUMBER_JAVA8_LAMBDA_GLUE = "io.cucumber.java8.LambdaGlue";
+
+    private static final MethodMatcher STEP_DEFINITION = new MethodMatcher(
+            CucumberJava8StepDefinitionToCucumberJava.IO_CUCUMBER_JAVA8_STEP_DEFINITION, true);
+    private static final List<MethodMatcher> HOOK_DEFINITIONS = Collections.unmodifiableList(asList(
+            new MethodMatcher(CucumberJava8HookDefinitionToCucumberJava.HOOK_BODY_DEFINITION, true),
+            new MethodMatcher(CucumberJava8HookDefinitionToCucumberJava.HOOK_NO_ARGS_BODY_DEFINITION, true)));
+
+    private final Kind kind;
+
+    @Override
+    public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+        if (tree instanceof JavaSourceFile) {
+            JavaSourceFile sourceFile = (JavaSourceFile) tree;
+            Set<Kind> applicableKinds = LastSourceFileCache.<Set<Kind>>of(ctx, CUCUMBER_JAVA8_USAGE)
+                    .computeIfAbsent(sourceFile, UsesCucumberJava8::applicableKinds);
+            if (applicableKinds.contains(kind)) {
+                return SearchResult.found(sourceFile);
+            }
+        }
+        return (J) tree;
+    }
+
+    private static Set<Kind> applicableKinds(JavaSourceFile sourceFile) {
+        Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+        if (!usesCucumberJava8Package(sourceFile)) {
+            return kinds;
+        }
+        // Glue called on a class of the file's own is only found through that class' supertypes, walked once each
+        Map<String, Boolean> lambdaGlue = new HashMap<>();
+        for (JavaType.Method method : sourceFile.getTypesInUse().getUsedMethods()) {
+            JavaType.FullyQualified declaringType = method.getDeclaringType();
+            if (!declaringType.getPackageName().startsWith(IO_CUCUMBER_JAVA8) &&
+                    !lambdaGlue.computeIfAbsent(declaringType.getFullyQualifiedName(),
+                            name -> TypeUtils.isAssignableTo(IO_CUCUMBER_JAVA8_LAMBDA_GLUE, declaringType))) {
+                continue;
+            }
+            if (STEP_DEFINITION.matches(method)) {
+                kinds.add(Kind.STEP_DEFINITION);
+            }
+            for (MethodMatcher matcher : HOOK_DEFINITIONS) {
+                if (matcher.matches(method)) {
+                    kinds.add(Kind.HOOK_DEFINITION);
+                }
+            }
+            for (MethodMatcher matcher : CucumberJava8TypeDefinitionToCucumberJava.TYPE_DEFINITION_MATCHERS) {
+                if (matcher.matches(method)) {
+                    kinds.add(Kind.TYPE_DEFINITION);
+                }
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * Whether the file uses any type, or any method declared on a type, of `io.cucumber.java8` or of the
+     * `cucumber.api.java8` it moved from; a file that does not has no glue for the method matchers to find.
+     */
+    private static boolean usesCucumberJava8Package(JavaSourceFile sourceFile) {
+        for (JavaType type : sourceFile.getTypesInUse().getTypesInUse()) {
+            if (type instanceof JavaType.FullyQualified &&
+                    isCucumberJava8Package(((JavaType.FullyQualified) type).getPackageName())) {
+                return true;
+            }
+        }
+        for (JavaType.Method method : sourceFile.getTypesInUse().getUsedMethods()) {
+            if (isCucumberJava8Package(method.getDeclaringType().getPackageName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCucumberJava8Package(String packageName) {
+        return packageName.startsWith(IO_CUCUMBER_JAVA8) || packageName.startsWith(CUCUMBER_API_JAVA8);
+    }
+}
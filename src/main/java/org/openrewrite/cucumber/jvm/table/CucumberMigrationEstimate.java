@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class CucumberMigrationEstimate extends DataTable<CucumberMigrationEstimate.Row> {
+
+    public CucumberMigrationEstimate(Recipe recipe) {
+        super(recipe,
+                "Cucumber migration estimate",
+                "What the Cucumber-JVM 7.x upgrade would find to migrate in each source file, told apart by " +
+                        "whether the recipes convert it or leave it for a manual migration.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path of the source file scanned.")
+        String sourcePath;
+
+        @Column(displayName = "Occurrence",
+                description = "What is to migrate, such as a `LambdaGlue` step definition or a regex step expression.")
+        String occurrence;
+
+        @Column(displayName = "Convertible",
+                description = "Whether the recipes convert the occurrences, rather than leave them for a manual " +
+                        "migration.")
+        boolean convertible;
+
+        @Column(displayName = "Occurrences",
+                description = "The number of occurrences in the source file.")
+        int occurrences;
+
+        @Column(displayName = "Estimated effort (min)",
+                description = "The occurrences times the estimated effort per occurrence of the recipe migrating them.")
+        long estimatedEffortMinutes;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class CucumberRecipeRunMetrics extends DataTable<CucumberRecipeRunMetrics.Row> {
+
+    public CucumberRecipeRunMetrics(Recipe recipe) {
+        super(recipe,
+                "Cucumber recipe run metrics",
+                "The time each Cucumber recipe spent on each source file its precondition holds for, and what it " +
+                        "did there, one row per cycle the file was visited in. Only recorded where the " +
+                        "`org.openrewrite.cucumber.jvm.runMetrics` execution context message or system property is " +
+                        "`true`.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path of the source file visited.")
+        String sourcePath;
+
+        @Column(displayName = "Recipe",
+                description = "The name of the recipe visiting the source file.")
+        String recipe;
+
+        @Column(displayName = "Cycle",
+                description = "The cycle the source file was visited in; the last cycle changing a file is the one " +
+                        "the recipe converged on it in.")
+        int cycle;
+
+        @Column(displayName = "Changed",
+                description = "Whether the visit changed the source file.")
+        boolean changed;
+
+        @Column(displayName = "Wall time (ns)",
+                description = "The wall time spent visiting the source file, including the visitors scheduled " +
+                        "to run after the visit.")
+        long wallTimeNanos;
+
+        @Column(displayName = "Template applications",
+                description = "The number of times a `JavaTemplate` was applied to the source file.")
+        int templateApplications;
+
+        @Column(displayName = "Visitors scheduled after",
+                description = "The number of visitors the recipe scheduled through `doAfterVisit` itself, leaving out those " +
+                        "`maybeAddImport` and `maybeRemoveImport` schedule.")
+        int afterVisitsScheduled;
+
+        @Column(displayName = "Lambda glue converted",
+                description = "The number of `LambdaGlue` registrations converted to annotated methods.")
+        int lambdaGlueConverted;
+
+        @Column(displayName = "Lambda glue flagged",
+                description = "The number of `LambdaGlue` registrations marked `TODO Migrate manually` instead.")
+        int lambdaGlueFlagged;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link MigrationPhaseEvent} recorded by Java Flight Recorder as
+ * {@code org.openrewrite.cucumber.jvm.MigrationPhase}, as in {@code jcmd <pid> JFR.start settings=profile}. The
+ * instance {@link MigrationPhaseEvent.Recorder} loads is only the factory of the events it starts, and is never
+ * committed itself.
+ */
+@Name("org.openrewrite.cucumber.jvm.MigrationPhase")
+@Label("Cucumber Migration Phase")
+@Category({"OpenRewrite", "Cucumber"})
+@Description("A phase of the migration of Cucumber-JVM glue")
+@StackTrace(false)
+final class JfrMigrationPhaseEvent extends jdk.jfr.Event implements MigrationPhaseEvent, MigrationPhaseEvent.Factory {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Subject")
+    @Description("The class the phase works on, or the path of the source file where it covers a whole file")
+    String subject;
+
+    @Label("Count")
+    @Description("The number of things, such as templates or methods, the phase went through")
+    int count;
+
+    @Override
+    public MigrationPhaseEvent start(String phase, String subject) {
+        JfrMigrationPhaseEvent event = new JfrMigrationPhaseEvent();
+        event.phase = phase;
+        event.subject = subject;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(int count) {
+        if (shouldCommit()) {
+            this.count = count;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.*;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GeneratedSource;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GlueShape;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.maven.MavenParser;
+import org.openrewrite.properties.PropertiesParser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Visits the source files on a thread pool the way a parallel LST processor does, with the one recipe instance, the
+ * static tables of the recipes and the one execution context shared between every thread, and compares the outcome
+ * with a visit of the very same files one after the other.
+ */
+class ConcurrentRecipeRunTest {
+
+    private static final SyntheticCorpus CORPUS = new SyntheticCorpus(42);
+
+    private static final String[] LAMBDA_GLUE_CLASSPATH = {"cucumber-java-7", "cucumber-java8-7", "datatable"};
+    private static final String[] TYPE_REGISTRY_CLASSPATH = {"cucumber-java-7", "cucumber-expressions",
+      "datatable", "docstring", "cucumber-core-6.11.0"};
+    private static final String[] CUCUMBER_API_CLASSPATH = {"cucumber-core-4.8.1", "cucumber-java-4.8.1",
+      "cucumber-junit-4.8.1", "cucumber-testng-4.8.1"};
+    private static final String[] CUCUMBER_OPTIONS_CLASSPATH = {"cucumber-junit-5", "cucumber-testng-5"};
+
+    /**
+     * At least as many threads as there are files for any one recipe to contend over, whatever the machine.
+     */
+    private static final int THREADS = Math.max(16, Runtime.getRuntime().availableProcessors());
+
+    private static final int MAX_CYCLES = 3;
+
+    @Test
+    void cucumberJava8StepDefinitionToCucumberJava() {
+        assertConcurrentRunMatchesSequentialRun(new CucumberJava8StepDefinitionToCucumberJava(), lambdaGlue());
+    }
+
+    @Test
+    void cucumberJava8HookDefinitionToCucumberJava() {
+        assertConcurrentRunMatchesSequentialRun(new CucumberJava8HookDefinitionToCucumberJava(), lambdaGlue());
+    }
+
+    @Test
+    void cucumberJava8TypeDefinitionToCucumberJava() {
+        assertConcurrentRunMatchesSequentialRun(new CucumberJava8TypeDefinitionToCucumberJava(), lambdaGlue());
+    }
+
+    @Test
+    void removeCucumberJava8Dependency() {
+        assertConcurrentRunMatchesSequentialRun(new RemoveCucumberJava8Dependency(), lambdaGlue());
+    }
+
+    @Test
+    void typeRegistryConfigurerToAnnotations() {
+        assertConcurrentRunMatchesSequentialRun(new TypeRegistryConfigurerToAnnotations(),
+          parseJava(CORPUS.typeRegistryConfigurers(32, 4), TYPE_REGISTRY_CLASSPATH));
+    }
+
+    @Test
+    void regexToCucumberExpression() {
+        assertConcurrentRunMatchesSequentialRun(new RegexToCucumberExpression(), annotatedGlue());
+    }
+
+    @Test
+    void dropTimeoutAttribute() {
+        assertConcurrentRunMatchesSequentialRun(new DropTimeoutAttribute(), annotatedGlue());
+    }
+
+    @Test
+    void cucumberApiToIoCucumber() {
+        assertConcurrentRunMatchesSequentialRun(new CucumberApiToIoCucumber(),
+          parseJava(CORPUS.cucumberApi(64), CUCUMBER_API_CLASSPATH));
+    }
+
+    @Test
+    void cucumberOptionsPropertyToIndividualProperties() {
+        assertConcurrentRunMatchesSequentialRun(new CucumberOptionsPropertyToIndividualProperties(),
+          cucumberOptions(32));
+    }
+
+    @Test
+    void dropStrictOption() {
+        assertConcurrentRunMatchesSequentialRun(new DropStrictOption(),
+          parseJava(CORPUS.cucumberOptionsRunners(64), CUCUMBER_OPTIONS_CLASSPATH));
+    }
+
+    @Test
+    void collapseCucumberOptionsTags() {
+        assertConcurrentRunMatchesSequentialRun(new CollapseCucumberOptionsTags(),
+          parseJava(CORPUS.cucumberOptionsRunners(64), CUCUMBER_OPTIONS_CLASSPATH));
+    }
+
+    @Test
+    void migrateScenarioWriteAndEmbed() {
+        assertConcurrentRunMatchesSequentialRun(new MigrateScenarioWriteAndEmbed(),
+          parseJava(CORPUS.scenarioGlue(64), "cucumber-java-5"));
+    }
+
+    @Test
+    void cucumberAnnotationToSuite() {
+        assertConcurrentRunMatchesSequentialRun(new CucumberAnnotationToSuite(),
+          parseJava(CORPUS.junitPlatformRunners(64), "cucumber-junit-platform-engine", "junit-platform-suite-api-1"));
+    }
+
+    @Test
+    void dropSummaryPrinter() {
+        assertConcurrentRunMatchesSequentialRun(new DropSummaryPrinter(),
+          parseJava(CORPUS.summaryPrinters(64), "cucumber-plugin"));
+    }
+
+    @Test
+    void infoCukesToIoCucumberDependencies() {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to parse the corpus", t));
+        List<SourceFile> poms = new ArrayList<>();
+        for (GeneratedSource pom : CORPUS.infoCukesPoms(16)) {
+            MavenParser.builder().build().parse(ctx, pom.getText())
+              .map(sourceFile -> (SourceFile) sourceFile.withSourcePath(pom.getPath()))
+              .forEach(poms::add);
+        }
+        assertConcurrentRunMatchesSequentialRun(new InfoCukesToIoCucumberDependencies(), poms);
+    }
+
+    @Test
+    void estimateCucumberMigration() {
+        List<SourceFile> sourceFiles = new ArrayList<>(lambdaGlue());
+        sourceFiles.addAll(annotatedGlue());
+        sourceFiles.addAll(cucumberOptions(8));
+        assertConcurrentRunMatchesSequentialRun(new EstimateCucumberMigration(), sourceFiles);
+    }
+
+    private static List<SourceFile> lambdaGlue() {
+        return parseJava(CORPUS.lambdaGlue(64, GlueShape.DEFAULT.withSteps(4).withHooks(2).withTypeDefinitions(2)),
+          LAMBDA_GLUE_CLASSPATH);
+    }
+
+    private static List<SourceFile> annotatedGlue() {
+        return parseJava(CORPUS.annotatedGlue(64, 8), "cucumber-java-7");
+    }
+
+    private static void assertConcurrentRunMatchesSequentialRun(Recipe recipe, List<SourceFile> sourceFiles) {
+        Map<Path, String> sequential = run(recipe, sourceFiles, 1);
+        assertThat(run(recipe, sourceFiles, THREADS))
+          .as("Visited on %d threads", THREADS)
+          .isEqualTo(sequential);
+    }
+
+    /**
+     * @return the source files as printed after the recipe's last cycle, by path
+     */
+    private static Map<Path, String> run(Recipe recipe, List<SourceFile> sourceFiles, int threads) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to run the recipe", t));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<SourceFile> before = sourceFiles;
+            for (int cycle = 1; cycle <= MAX_CYCLES; cycle++) {
+                List<SourceFile> after = cycle(recipe, before, ctx, pool);
+                boolean changed = false;
+                for (int i = 0; i < before.size(); i++) {
+                    changed |= after.get(i) != before.get(i);
+                }
+                before = after;
+                if (!changed) {
+                    break;
+                }
+            }
+            return before.stream().collect(toMap(SourceFile::getSourcePath, SourceFile::printAll));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SourceFile> cycle(Recipe recipe, List<SourceFile> sourceFiles, ExecutionContext ctx,
+                                         ExecutorService pool) {
+        if (!(recipe instanceof ScanningRecipe)) {
+            return visitAll(sourceFiles, pool, sourceFile -> visit(recipe.getVisitor(), sourceFile, ctx));
+        }
+        ScanningRecipe<Object> scanningRecipe = (ScanningRecipe<Object>) recipe;
+        Object accumulator = scanningRecipe.getInitialValue(ctx);
+        visitAll(sourceFiles, pool, sourceFile -> visit(scanningRecipe.getScanner(accumulator), sourceFile, ctx));
+        return visitAll(sourceFiles, pool,
+          sourceFile -> visit(scanningRecipe.getVisitor(accumulator), sourceFile, ctx));
+    }
+
+    /**
+     * A visitor of its own for every file, as visitors hold the cursor of the visit in progress.
+     */
+    private static SourceFile visit(TreeVisitor<?, ExecutionContext> visitor, SourceFile sourceFile,
+                                    ExecutionContext ctx) {
+        if (!visitor.isAcceptable(sourceFile, ctx)) {
+            return sourceFile;
+        }
+        Tree after = visitor.visit(sourceFile, ctx);
+        return after == null ? sourceFile : (SourceFile) after;
+    }
+
+    private static List<SourceFile> visitAll(List<SourceFile> sourceFiles, ExecutorService pool,
+                                             Function<SourceFile, SourceFile> visit) {
+        List<Future<SourceFile>> visits = sourceFiles.stream()
+          .map(sourceFile -> pool.submit(() -> visit.apply(sourceFile)))
+          .collect(toList());
+        List<SourceFile> visited = new ArrayList<>(visits.size());
+        for (Future<SourceFile> v : visits) {
+            try {
+                visited.add(v.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                return fail("Failed to visit a source file", e.getCause());
+            }
+        }
+        return visited;
+    }
+
+    private static List<SourceFile> parseJava(List<GeneratedSource> sources, String... classpath) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to parse the corpus", t));
+        return JavaParser.fromJavaVersion()
+          .classpathFromResources(ctx, classpath)
+          .build()
+          .parse(ctx, sources.stream().map(GeneratedSource::getText).toArray(String[]::new))
+          .collect(toList());
+    }
+
+    /**
+     * @return a `cucumber.properties` file and a pom passing the options to Surefire for every module
+     */
+    private static List<SourceFile> cucumberOptions(int modules) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to parse the corpus", t));
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        for (GeneratedSource properties : CORPUS.cucumberProperties(modules)) {
+            PropertiesParser.builder().build().parse(ctx, properties.getText())
+              .map(sourceFile -> (SourceFile) sourceFile.withSourcePath(properties.getPath()))
+              .forEach(sourceFiles::add);
+        }
+        for (GeneratedSource pom : CORPUS.poms(modules)) {
+            MavenParser.builder().build().parse(ctx, pom.getText())
+              .map(sourceFile -> (SourceFile) sourceFile.withSourcePath(pom.getPath()))
+              .forEach(sourceFiles::add);
+        }
+        return sourceFiles;
+    }
+}
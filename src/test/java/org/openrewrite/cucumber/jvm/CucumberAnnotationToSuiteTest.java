@@ -23,7 +23,8 @@ import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
-import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.*;
+import static org.openrewrite.maven.Assertions.pomXml;
 
 @Issue("https://github.com/openrewrite/rewrite-testing-frameworks/issues/264")
 class CucumberAnnotationToSuiteTest implements RewriteTest {
@@ -63,4 +64,64 @@ class CucumberAnnotationToSuiteTest implements RewriteTest {
               """
           ));
     }
+
+    @Test
+    void addJunitPlatformSuiteInTheSameCycle() {
+        rewriteRun(
+          spec -> spec.recipeFromResources("org.openrewrite.cucumber.jvm.CucumberToJunitPlatformSuite")
+            .cycles(1)
+            .expectedCyclesThatMakeChanges(1),
+          mavenProject("app",
+            srcTestJava(
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.junit.platform.engine.Cucumber;
+
+                  @Cucumber
+                  public class RunCucumberTest {
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import org.junit.platform.suite.api.SelectClasspathResource;
+                  import org.junit.platform.suite.api.Suite;
+
+                  @Suite
+                  @SelectClasspathResource("com/example/app")
+                  public class RunCucumberTest {
+                  }
+                  """
+              )
+            ),
+            pomXml(
+              """
+                <project>
+                    <groupId>com.example</groupId>
+                    <artifactId>app</artifactId>
+                    <version>1.0.0</version>
+                </project>
+                """,
+              """
+                <project>
+                    <groupId>com.example</groupId>
+                    <artifactId>app</artifactId>
+                    <version>1.0.0</version>
+                    <dependencies>
+                        <dependency>
+                            <groupId>org.junit.platform</groupId>
+                            <artifactId>junit-platform-suite</artifactId>
+                            <version>1.9.3</version>
+                            <scope>test</scope>
+                        </dependency>
+                    </dependencies>
+                </project>
+                """
+            )
+          )
+        );
+    }
 }
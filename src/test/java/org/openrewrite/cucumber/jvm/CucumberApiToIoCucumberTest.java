@@ -111,10 +111,10 @@ class CucumberApiToIoCucumberTest implements RewriteTest {
             """
               package com.example.app;
 
-              import io.cucumber.java.Before;
-              import io.cucumber.java.en.Given;
               import io.cucumber.java.PendingException;
               import io.cucumber.java.Scenario;
+              import io.cucumber.java.Before;
+              import io.cucumber.java.en.Given;
 
               public class StepDefinitions {
                   @Before
@@ -150,11 +150,11 @@ class CucumberApiToIoCucumberTest implements RewriteTest {
             """
               package com.example.app;
 
-              import io.cucumber.junit.Cucumber;
               import io.cucumber.junit.CucumberOptions;
               import io.cucumber.junit.CucumberOptions.SnippetType;
+              import io.cucumber.junit.Cucumber;
 
-              @CucumberOptions(snippets = CucumberOptions.SnippetType.CAMELCASE)
+              @CucumberOptions(snippets = SnippetType.CAMELCASE)
               public class RunCucumberTest {
                   Class<?> runner = Cucumber.class;
               }
@@ -180,8 +180,8 @@ class CucumberApiToIoCucumberTest implements RewriteTest {
             """
               package com.example.app;
 
-              import io.cucumber.testng.AbstractTestNGCucumberTests;
               import io.cucumber.testng.CucumberOptions;
+              import io.cucumber.testng.AbstractTestNGCucumberTests;
 
               @CucumberOptions(features = "classpath:features")
               public class RunCucumberTest extends AbstractTestNGCucumberTests {
@@ -220,11 +220,11 @@ class CucumberApiToIoCucumberTest implements RewriteTest {
             """
               package com.example.app;
 
-              import io.cucumber.plugin.ColorAware;
               import io.cucumber.plugin.SummaryPrinter;
+              import io.cucumber.plugin.EventListener;
               import io.cucumber.plugin.event.EventPublisher;
               import io.cucumber.plugin.event.TestRunFinished;
-              import io.cucumber.plugin.EventListener;
+              import io.cucumber.plugin.ColorAware;
 
               public class MyFormatter implements EventListener, ColorAware, SummaryPrinter {
                   @Override
@@ -242,6 +242,67 @@ class CucumberApiToIoCucumberTest implements RewriteTest {
           ));
     }
 
+    @Test
+    void importTypesOfAPackageThatDidNotMoveAsAWhole() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              package com.example.app;
+
+              import cucumber.api.*;
+              import cucumber.api.java.Before;
+
+              public class StepDefinitions {
+                  @Before
+                  public void before(Scenario scenario) {
+                      throw new PendingException();
+                  }
+              }
+              """,
+            """
+              package com.example.app;
+
+              import io.cucumber.java.PendingException;
+              import io.cucumber.java.Scenario;
+              import io.cucumber.java.Before;
+
+              public class StepDefinitions {
+                  @Before
+                  public void before(Scenario scenario) {
+                      throw new PendingException();
+                  }
+              }
+              """
+          ));
+    }
+
+    @Test
+    void typesWrittenOutInFull() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              package com.example.app;
+
+              public class StepDefinitions {
+                  @cucumber.api.java.Before
+                  public void before(cucumber.api.Scenario scenario) {
+                  }
+              }
+              """,
+            """
+              package com.example.app;
+
+              public class StepDefinitions {
+                  @io.cucumber.java.Before
+                  public void before(io.cucumber.java.Scenario scenario) {
+                  }
+              }
+              """
+          ));
+    }
+
     @Test
     void objectFactoryMovesToCoreBackend() {
         rewriteRun(
@@ -18,17 +18,25 @@ package org.openrewrite.cucumber.jvm;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
+import org.openrewrite.ExecutionContext;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.Issue;
 import org.openrewrite.config.Environment;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.openrewrite.java.Assertions.java;
 import static org.openrewrite.java.Assertions.mavenProject;
 import static org.openrewrite.java.Assertions.srcTestJava;
@@ -216,6 +224,238 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
               ));
         }
 
+        @SuppressWarnings("CodeBlock2Expr")
+        @Test
+        void buildEachTemplateShapeOnce() {
+            ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to run the recipe", t));
+            rewriteRun(
+              spec -> spec.executionContext(ctx),
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+
+                          Given("a second calculator", () -> {
+                          });
+
+                          Given("a third calculator", () -> {
+                          });
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+
+                  public class CalculatorStepDefinitions {
+
+                      @Given("a calculator I just turned on")
+                      public void a_calculator_i_just_turned_on() {
+                      }
+
+                      @Given("a second calculator")
+                      public void a_second_calculator() {
+                      }
+
+                      @Given("a third calculator")
+                      public void a_third_calculator() {
+                      }
+                  }
+                  """
+              ));
+            // The three steps share an annotation, and so the one template
+            assertThat(TemplateCache.of(ctx).getMisses()).isEqualTo(1);
+            assertThat(TemplateCache.of(ctx).getHits()).isEqualTo(2);
+        }
+
+        @SuppressWarnings("CodeBlock2Expr")
+        @Test
+        void recordRunMetricsPerRecipeAndFile() {
+            ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to run the recipe", t));
+            ctx.putMessage(RecipeRunMetrics.ENABLED, true);
+            rewriteRun(
+              spec -> spec.executionContext(ctx).dataTable(CucumberRecipeRunMetrics.Row.class, rows -> {
+                  assertThat(rows)
+                    .filteredOn(row -> row.getCycle() == 1)
+                    .filteredOn(row -> row.getRecipe().equals(CucumberJava8StepDefinitionToCucumberJava.class.getName()))
+                    .singleElement()
+                    .satisfies(row -> {
+                        assertThat(row.getSourcePath()).isEqualTo("com/example/app/CalculatorStepDefinitions.java");
+                        assertThat(row.isChanged()).isTrue();
+                        assertThat(row.getTemplateApplications()).isEqualTo(1);
+                        // The visit of the class adding the annotated method, not what that visit schedules in turn
+                        assertThat(row.getAfterVisitsScheduled()).isEqualTo(1);
+                        assertThat(row.getLambdaGlueConverted()).isEqualTo(1);
+                        assertThat(row.getLambdaGlueFlagged()).isZero();
+                    });
+                  assertThat(rows)
+                    .filteredOn(row -> row.getCycle() == 1)
+                    .filteredOn(row -> row.getRecipe().equals(CucumberJava8TypeDefinitionToCucumberJava.class.getName()))
+                    .singleElement()
+                    .satisfies(row -> {
+                        assertThat(row.getLambdaGlueConverted()).isZero();
+                        assertThat(row.getLambdaGlueFlagged()).isEqualTo(1);
+                    });
+                  // No hook is registered, so the hook migration's precondition holds for no file to record
+                  assertThat(rows)
+                    .noneMatch(row -> row.getRecipe().equals(CucumberJava8HookDefinitionToCucumberJava.class.getName()));
+                  // Converged on the first cycle, leaving the second nothing to change
+                  assertThat(rows)
+                    .filteredOn(row -> row.getCycle() == 2)
+                    .isNotEmpty()
+                    .noneMatch(CucumberRecipeRunMetrics.Row::isChanged);
+              }),
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+
+                          DataTableType(BLANK, (String cell) -> new Money(cell));
+                      }
+
+                      static final String BLANK = "[blank]";
+
+                      static class Money {
+                          Money(String amount) {
+                          }
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+
+                          /*~~(TODO Migrate manually)~~>*/DataTableType(BLANK, (String cell) -> new Money(cell));
+                      }
+
+                      @Given("a calculator I just turned on")
+                      public void a_calculator_i_just_turned_on() {
+                      }
+
+                      static final String BLANK = "[blank]";
+
+                      static class Money {
+                          Money(String amount) {
+                          }
+                      }
+                  }
+                  """
+              ));
+        }
+
+        @SuppressWarnings("CodeBlock2Expr")
+        @Test
+        void abandonClassesOverTheirTimeBudget() {
+            rewriteRun(
+              spec -> spec.recipe(new CucumberJava8StepDefinitionToCucumberJava("PT0S")),
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+                          When("I add {int}", (Integer b) -> {
+                          });
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  /*~~(TODO Migrate manually, as the migration of this class ran over its time budget)~~>*/public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+                          When("I add {int}", (Integer b) -> {
+                          });
+                      }
+                  }
+                  """
+              ));
+        }
+
+        @SuppressWarnings("CodeBlock2Expr")
+        @Test
+        void abandonNestedClassesOnABudgetOfTheirOwn() {
+            rewriteRun(
+              spec -> spec.recipe(new CucumberJava8StepDefinitionToCucumberJava("PT0S")),
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+                      }
+
+                      static class MoreStepDefinitions implements En {
+                          MoreStepDefinitions() {
+                              When("I add {int}", (Integer b) -> {
+                              });
+                          }
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  /*~~(TODO Migrate manually, as the migration of this class ran over its time budget)~~>*/public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+                      }
+
+                      /*~~(TODO Migrate manually, as the migration of this class ran over its time budget)~~>*/static class MoreStepDefinitions implements En {
+                          MoreStepDefinitions() {
+                              When("I add {int}", (Integer b) -> {
+                              });
+                          }
+                      }
+                  }
+                  """
+              ));
+        }
+
+        @Test
+        void rejectATimeBudgetThatIsNoDuration() {
+            assertThat(new CucumberJava8StepDefinitionToCucumberJava("thirty seconds").validate().isInvalid()).isTrue();
+            assertThat(new CucumberJava8StepDefinitionToCucumberJava("PT30S").validate().isValid()).isTrue();
+            assertThat(new CucumberJava8StepDefinitionToCucumberJava().validate().isValid()).isTrue();
+        }
+
         @Issue("https://github.com/openrewrite/rewrite-cucumber-jvm/issues/47")
         @SuppressWarnings("CodeBlock2Expr")
         @Test
@@ -572,6 +812,59 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
               ));
         }
 
+        @SuppressWarnings({"CodeBlock2Expr", "RedundantThrows", "UnnecessaryCodeBlock"})
+        @Test
+        void leaveMethodsTheMigrationDidNotGenerateAlone() {
+            // Only the generated methods have their nested braces and unnecessary throws cleaned up
+            rewriteRun(
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+
+                      private int count;
+
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                              count = 0;
+                          });
+                      }
+
+                      private void reset() throws Exception {
+                          {
+                              count = 0;
+                          }
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+
+                  public class CalculatorStepDefinitions {
+
+                      private int count;
+
+                      @Given("a calculator I just turned on")
+                      public void a_calculator_i_just_turned_on() {
+                          count = 0;
+                      }
+
+                      private void reset() throws Exception {
+                          {
+                              count = 0;
+                          }
+                      }
+                  }
+                  """
+              ));
+        }
+
         @Issue("https://github.com/openrewrite/rewrite-cucumber-jvm/issues/47")
         @SuppressWarnings("CodeBlock2Expr")
         @Test
@@ -1429,9 +1722,8 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
               ));
         }
 
-        @SuppressWarnings("CodeBlock2Expr")
         @Test
-        void importScenarioWhereTheHookBodyLeavesItImplicit() {
+        void nameHooksOfTheSameKindApart() {
             rewriteRun(
               // language=java
               java(
@@ -1445,66 +1737,69 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
                       private int a;
 
                       public HookStepDefinitions() {
-                          After(scn -> {
-                              a = 0;
-                          });
+                          Before(() -> a = 0);
+
+                          Before(() -> a = 1);
+
+                          After(() -> after());
                       }
 
+                      private void after() {
+                          a = 2;
+                      }
                   }
                   """,
                 """
                   package com.example.app;
 
                   import io.cucumber.java.After;
-                  import io.cucumber.java.Scenario;
+                  import io.cucumber.java.Before;
 
                   public class HookStepDefinitions {
 
                       private int a;
 
-                      @After
-                      public void after(Scenario scn) {
+                      @Before
+                      public void before() {
                           a = 0;
                       }
 
+                      @Before
+                      public void before2() {
+                          a = 1;
+                      }
+
+                      @After
+                      public void after2() {
+                          after();
+                      }
+
+                      private void after() {
+                          a = 2;
+                      }
                   }
                   """
               ));
         }
 
+        @SuppressWarnings("CodeBlock2Expr")
         @Test
-        void convertAnonymousClasses() {
-            // For simplicity, anonymous classes are not converted for now; it's
-            // not how cucumber-java8 usage was intended
+        void importScenarioWhereTheHookBodyLeavesItImplicit() {
             rewriteRun(
-              spec -> spec.cycles(2),
               // language=java
               java(
                 """
                   package com.example.app;
 
                   import io.cucumber.java8.En;
-                  import io.cucumber.java8.HookBody;
-                  import io.cucumber.java8.HookNoArgsBody;
-                  import io.cucumber.java8.Scenario;
 
                   public class HookStepDefinitions implements En {
 
                       private int a;
 
                       public HookStepDefinitions() {
-                          Before(new HookNoArgsBody() {
-                              @Override
-                              public void accept() {
-                                  a = 0;
-                              }
-                          });
-
-                          Before(new HookBody() {
-                              @Override
-                              public void accept(Scenario scenario) {
-                                  a = 0;
-                              }
+                          After(scn -> {
+                              a = 0;
                           });
                       }
 
@@ -1513,24 +1808,49 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
                 """
                   package com.example.app;
 
-                  import io.cucumber.java8.En;
-                  import io.cucumber.java8.HookBody;
-                  import io.cucumber.java8.HookNoArgsBody;
-                  import io.cucumber.java8.Scenario;
-
+                  import io.cucumber.java.After;
+                  import io.cucumber.java.Scenario;
+
+                  public class HookStepDefinitions {
+
+                      private int a;
+
+                      @After
+                      public void after(Scenario scn) {
+                          a = 0;
+                      }
+
+                  }
+                  """
+              ));
+        }
+
+        @Test
+        void convertAnonymousClasses() {
+            rewriteRun(
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+                  import io.cucumber.java8.HookBody;
+                  import io.cucumber.java8.HookNoArgsBody;
+                  import io.cucumber.java8.Scenario;
+
                   public class HookStepDefinitions implements En {
 
                       private int a;
 
                       public HookStepDefinitions() {
-                          /*~~(TODO Migrate manually)~~>*/Before(new HookNoArgsBody() {
+                          Before(new HookNoArgsBody() {
                               @Override
                               public void accept() {
                                   a = 0;
                               }
                           });
 
-                          /*~~(TODO Migrate manually)~~>*/Before(new HookBody() {
+                          Before(new HookBody() {
                               @Override
                               public void accept(Scenario scenario) {
                                   a = 0;
@@ -1538,6 +1858,92 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
                           });
                       }
 
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.Before;
+                  import io.cucumber.java.Scenario;
+
+                  public class HookStepDefinitions {
+
+                      private int a;
+
+                      @Before
+                      public void before() {
+                          a = 0;
+                      }
+
+                      @Before
+                      public void before2(Scenario scenario) {
+                          a = 0;
+                      }
+
+                  }
+                  """
+              ));
+        }
+
+        @Test
+        void retainAnonymousClassesReferringToThemselves() {
+            rewriteRun(
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+                  import io.cucumber.java8.StepDefinitionBody;
+
+                  public class CalculatorStepDefinitions implements En {
+
+                      private Object last;
+
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", new StepDefinitionBody.A0() {
+                              @Override
+                              public void accept() {
+                                  last = null;
+                              }
+                          });
+
+                          When("I remember the step", new StepDefinitionBody.A0() {
+                              @Override
+                              public void accept() {
+                                  last = this;
+                              }
+                          });
+                      }
+
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+                  import io.cucumber.java8.En;
+                  import io.cucumber.java8.StepDefinitionBody;
+
+                  public class CalculatorStepDefinitions implements En {
+
+                      private Object last;
+
+                      public CalculatorStepDefinitions() {
+
+                          /*~~(TODO Migrate manually)~~>*/When("I remember the step", new StepDefinitionBody.A0() {
+                              @Override
+                              public void accept() {
+                                  last = this;
+                              }
+                          });
+                      }
+
+                      @Given("a calculator I just turned on")
+                      public void a_calculator_i_just_turned_on() {
+                          last = null;
+                      }
+
                   }
                   """
               ));
@@ -1914,6 +2320,55 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
               ));
         }
 
+        @Test
+        void anonymousClassBodies() {
+            rewriteRun(
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.DocStringDefinitionBody;
+                  import io.cucumber.java8.En;
+
+                  public class TypeDefinitions implements En {
+
+                      public TypeDefinitions() {
+                          DocStringType("json", new DocStringDefinitionBody<Title>() {
+                              @Override
+                              public Title transform(String docString) {
+                                  return new Title(docString);
+                              }
+                          });
+                      }
+
+                      static class Title {
+                          Title(String value) {
+                          }
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.DocStringType;
+
+                  public class TypeDefinitions {
+
+                      @DocStringType(contentType = "json")
+                      public Title title(String docString) {
+                          return new Title(docString);
+                      }
+
+                      static class Title {
+                          Title(String value) {
+                          }
+                      }
+                  }
+                  """
+              ));
+        }
+
         @Test
         void importTheTypeARegistrationIsKeyedBy() {
             rewriteRun(
@@ -2288,5 +2743,342 @@ class CucumberJava8ToCucumberJavaTest implements RewriteTest {
                     </project>
                     """.formatted(addedCucumberJavaVersion(actual))))));
         }
+
+        @SuppressWarnings("CodeBlock2Expr")
+        @Test
+        void retainCucumberJava8WhereAClassRunsOverItsTimeBudget() {
+            rewriteRun(
+              // The recipe list of `CucumberJava8ToJava`, as composed by one setting a class time budget
+              spec -> spec.recipeFromYaml(
+                //language=yaml
+                """
+                  type: specs.openrewrite.org/v1beta/recipe
+                  name: com.example.CucumberJava8ToJavaOnABudget
+                  displayName: Migrate `cucumber-java8` to `cucumber-java` on a class time budget
+                  description: Migrates `cucumber-java8` glue, giving up on any class that takes too long.
+                  recipeList:
+                    - org.openrewrite.cucumber.jvm.CucumberJava8HookDefinitionToCucumberJava:
+                        classTimeBudget: PT0S
+                    - org.openrewrite.cucumber.jvm.CucumberJava8StepDefinitionToCucumberJava:
+                        classTimeBudget: PT0S
+                    - org.openrewrite.cucumber.jvm.CucumberJava8TypeDefinitionToCucumberJava:
+                        classTimeBudget: PT0S
+                    - org.openrewrite.cucumber.jvm.MigrateCucumberJava8ScenarioAndStatus
+                    - org.openrewrite.java.dependencies.AddDependency:
+                        groupId: io.cucumber
+                        artifactId: cucumber-java
+                        version: 7.x
+                        familyPattern: io.cucumber*
+                        onlyIfUsing: io.cucumber.java8..*
+                        acceptTransitive: true
+                    - org.openrewrite.cucumber.jvm.RemoveCucumberJava8Dependency:
+                        classTimeBudget: PT0S
+                  """,
+                "com.example.CucumberJava8ToJavaOnABudget"),
+              mavenProject("app",
+                srcTestJava(
+                  // language=java
+                  java(
+                    """
+                      package com.example.app;
+
+                      import io.cucumber.java8.En;
+
+                      public class CalculatorStepDefinitions implements En {
+                          public CalculatorStepDefinitions() {
+                              Given("a calculator I just turned on", () -> {
+                              });
+                          }
+                      }
+                      """,
+                    """
+                      package com.example.app;
+
+                      import io.cucumber.java8.En;
+
+                      /*~~(TODO Migrate manually, as the migration of this class ran over its time budget)~~>*/public class CalculatorStepDefinitions implements En {
+                          public CalculatorStepDefinitions() {
+                              Given("a calculator I just turned on", () -> {
+                              });
+                          }
+                      }
+                      """)),
+                //language=xml
+                pomXml(
+                  """
+                    <project>
+                        <groupId>com.example</groupId>
+                        <artifactId>app</artifactId>
+                        <version>1.0.0</version>
+                        <dependencies>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java8</artifactId>
+                                <version>7.34.6</version>
+                                <scope>test</scope>
+                            </dependency>
+                        </dependencies>
+                    </project>
+                    """,
+                  spec -> spec.after(actual -> """
+                    <project>
+                        <groupId>com.example</groupId>
+                        <artifactId>app</artifactId>
+                        <version>1.0.0</version>
+                        <dependencies>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java</artifactId>
+                                <version>%s</version>
+                                <scope>test</scope>
+                            </dependency>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java8</artifactId>
+                                <version>7.34.6</version>
+                                <scope>test</scope>
+                            </dependency>
+                        </dependencies>
+                    </project>
+                    """.formatted(addedCucumberJavaVersion(actual))))));
+        }
+
+        @Test
+        void retainCucumberJava8WhereAClassWasLeftOverItsTimeBudgetBefore() {
+            rewriteRun(
+              spec -> spec.recipe(new RemoveCucumberJava8Dependency()),
+              mavenProject("app",
+                srcTestJava(
+                  // language=java
+                  java(
+                    """
+                      package com.example.app;
+
+                      import io.cucumber.java8.En;
+
+                      public class CalculatorStepDefinitions implements En {
+                          public CalculatorStepDefinitions() {
+                              Given("a calculator I just turned on", () -> {
+                              });
+                          }
+                      }
+                      """,
+                    spec -> spec.mapBeforeRecipe(cu -> cu.withClasses(ListUtils.map(cu.getClasses(),
+                      MigrationBudget::markExceeded)))
+                  )),
+                //language=xml
+                pomXml(
+                  """
+                    <project>
+                        <groupId>com.example</groupId>
+                        <artifactId>app</artifactId>
+                        <version>1.0.0</version>
+                        <dependencies>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java8</artifactId>
+                                <version>7.34.6</version>
+                                <scope>test</scope>
+                            </dependency>
+                        </dependencies>
+                    </project>
+                    """)));
+        }
+
+        @Test
+        void retainCucumberJava8WhereAnUnusedImportRemains() {
+            rewriteRun(
+              // Nothing refers to the import, so nothing the migration removes takes it along
+              spec -> spec.expectedCyclesThatMakeChanges(1),
+              mavenProject("app",
+                srcTestJava(
+                  // language=java
+                  java(
+                    """
+                      package com.example.app;
+
+                      import io.cucumber.java8.En;
+                      import io.cucumber.java8.HookBody;
+
+                      public class CalculatorStepDefinitions implements En {
+                          public CalculatorStepDefinitions() {
+                              Given("a calculator I just turned on", () -> {
+                              });
+                          }
+                      }
+                      """,
+                    """
+                      package com.example.app;
+
+                      import io.cucumber.java.en.Given;
+                      import io.cucumber.java8.HookBody;
+
+                      public class CalculatorStepDefinitions {
+
+                          @Given("a calculator I just turned on")
+                          public void a_calculator_i_just_turned_on() {
+                          }
+                      }
+                      """)),
+                //language=xml
+                pomXml(
+                  """
+                    <project>
+                        <groupId>com.example</groupId>
+                        <artifactId>app</artifactId>
+                        <version>1.0.0</version>
+                        <dependencies>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java8</artifactId>
+                                <version>7.34.6</version>
+                                <scope>test</scope>
+                            </dependency>
+                        </dependencies>
+                    </project>
+                    """,
+                  spec -> spec.after(actual -> """
+                    <project>
+                        <groupId>com.example</groupId>
+                        <artifactId>app</artifactId>
+                        <version>1.0.0</version>
+                        <dependencies>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java</artifactId>
+                                <version>%s</version>
+                                <scope>test</scope>
+                            </dependency>
+                            <dependency>
+                                <groupId>io.cucumber</groupId>
+                                <artifactId>cucumber-java8</artifactId>
+                                <version>7.34.6</version>
+                                <scope>test</scope>
+                            </dependency>
+                        </dependencies>
+                    </project>
+                    """.formatted(addedCucumberJavaVersion(actual))))));
+        }
+    }
+
+    /**
+     * A template is parsed on its own wherever every type it names resolves against its own imports, and reprinted
+     * within the compilation unit it lands in only where one does not.
+     */
+    @Nested
+    class TemplateContext {
+
+        @Test
+        void contextFreeWhereEveryParameterTypeResolvesOnItsOwn() {
+            // language=java
+            String before = """
+              package com.example.app;
+
+              import io.cucumber.java8.En;
+
+              public class CalculatorStepDefinitions implements En {
+
+                  private Integer total;
+
+                  public CalculatorStepDefinitions() {
+                      Given("{int} apples", (Integer count) -> {
+                          total = count;
+                      });
+                  }
+              }
+              """;
+            assertThat(stepDefinitionArguments(before).isContextSensitive()).isFalse();
+            rewriteRun(
+              // language=java
+              java(
+                before,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+
+                  public class CalculatorStepDefinitions {
+
+                      private Integer total;
+
+                      @Given("{int} apples")
+                      public void int_apples(Integer count) {
+                          total = count;
+                      }
+                  }
+                  """
+              ));
+        }
+
+        @Test
+        void contextSensitiveForAParameterTypeOnlyTheFileResolves() {
+            // language=java
+            String before = """
+              package com.example.app;
+
+              import io.cucumber.java8.En;
+
+              public class CalculatorStepDefinitions implements En {
+
+                  private Money paid;
+
+                  public CalculatorStepDefinitions() {
+                      Given("pay {money}", (Money money) -> {
+                          paid = money;
+                      });
+                  }
+
+                  static class Money {
+                  }
+              }
+              """;
+            assertThat(stepDefinitionArguments(before).isContextSensitive()).isTrue();
+            rewriteRun(
+              // language=java
+              java(
+                before,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+
+                  public class CalculatorStepDefinitions {
+
+                      private Money paid;
+
+                      @Given("pay {money}")
+                      public void pay_money(Money money) {
+                          paid = money;
+                      }
+
+                      static class Money {
+                      }
+                  }
+                  """
+              ));
+        }
+
+        private StepDefinitionArguments stepDefinitionArguments(String source) {
+            ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to parse the glue", t));
+            J.CompilationUnit cu = (J.CompilationUnit) JavaParser.fromJavaVersion()
+              .classpathFromResources(ctx, "cucumber-java-7", "cucumber-java8-7")
+              .build()
+              .parse(ctx, source)
+              .findFirst()
+              .orElseThrow();
+            J.MethodInvocation step = new JavaIsoVisitor<List<J.MethodInvocation>>() {
+                @Override
+                public J.MethodInvocation visitMethodInvocation(J.MethodInvocation mi, List<J.MethodInvocation> steps) {
+                    if (CucumberJava8StepDefinitionToCucumberJava.isStepDefinition(mi)) {
+                        steps.add(mi);
+                    }
+                    return super.visitMethodInvocation(mi, steps);
+                }
+            }.reduce(cu, new ArrayList<>()).get(0);
+            StepDefinitionArguments arguments =
+              CucumberJava8StepDefinitionToCucumberJava.stepDefinitionArguments(step, "com.example.app");
+            assertThat(arguments).isNotNull();
+            return arguments;
+        }
     }
 }
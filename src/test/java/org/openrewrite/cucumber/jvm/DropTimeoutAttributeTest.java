@@ -102,6 +102,34 @@ class DropTimeoutAttributeTest implements RewriteTest {
             """));
     }
 
+    @Test
+    void dropTimeoutAheadOfTheStepExpression() {
+        // language=java
+        rewriteRun(java(
+          """
+            package com.example.app;
+
+            import io.cucumber.java.en.Then;
+
+            class StepDefinitions {
+                @Then(timeout = 1000, value = "a step")
+                void aStep() {
+                }
+            }
+            """,
+          """
+            package com.example.app;
+
+            import io.cucumber.java.en.Then;
+
+            class StepDefinitions {
+                @Then("a step")
+                void aStep() {
+                }
+            }
+            """));
+    }
+
     @Test
     void dropTimeoutFromNonEnglishStepDefinition() {
         // language=java
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.cucumber.jvm.table.CucumberMigrationEstimate;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.properties.Assertions.properties;
+
+class EstimateCucumberMigrationTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new EstimateCucumberMigration())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "cucumber-java-7", "cucumber-java8-7"));
+    }
+
+    @DocumentExample
+    @Test
+    void estimateWithoutChanges() {
+        rewriteRun(
+          spec -> spec.dataTable(CucumberMigrationEstimate.Row.class, rows -> assertThat(rows)
+            .extracting(CucumberMigrationEstimate.Row::getSourcePath, CucumberMigrationEstimate.Row::getOccurrence,
+              CucumberMigrationEstimate.Row::isConvertible, CucumberMigrationEstimate.Row::getOccurrences,
+              CucumberMigrationEstimate.Row::getEstimatedEffortMinutes)
+            .containsExactlyInAnyOrder(
+              tuple("com/example/app/LambdaStepDefinitions.java", "`LambdaGlue` step definition", true, 1, 10L),
+              tuple("com/example/app/LambdaStepDefinitions.java", "`LambdaGlue` step definition", false, 1, 10L),
+              tuple("com/example/app/AnnotatedStepDefinitions.java", "Regex step expression", true, 2, 2L),
+              tuple("com/example/app/AnnotatedStepDefinitions.java", "Regex step expression", false, 1, 1L),
+              tuple("cucumber.properties", "`cucumber.options` property", false, 1, 5L))),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.java8.En;
+
+              public class LambdaStepDefinitions implements En {
+
+                  private static final String EXPRESSION = "I have no cukes";
+
+                  public LambdaStepDefinitions() {
+                      Given("I have {int} cukes", (Integer cukes) -> {
+                      });
+                      Given(EXPRESSION, () -> {
+                      });
+                  }
+              }
+              """
+          ),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.java.en.Given;
+              import io.cucumber.java.en.Then;
+
+              public class AnnotatedStepDefinitions {
+
+                  @Given("^five cukes$")
+                  public void five_cukes() {
+                  }
+
+                  @Given("/six cukes/")
+                  public void six_cukes() {
+                  }
+
+                  @Given("a cuke")
+                  public void a_cuke() {
+                  }
+
+                  @Then("^I expect (\\\\d+)$")
+                  public void i_expect_int(Integer c) {
+                  }
+              }
+              """
+          ),
+          properties(
+            """
+              cucumber.options=--threads 4
+              """,
+            spec -> spec.path("cucumber.properties")
+          )
+        );
+    }
+
+    @Test
+    void estimateTypeRegistryConfigurers() {
+        rewriteRun(
+          spec -> spec.parser(JavaParser.fromJavaVersion()
+              .classpathFromResources(new InMemoryExecutionContext(), "cucumber-expressions", "cucumber-core-6.11.0"))
+            .dataTable(CucumberMigrationEstimate.Row.class, rows -> assertThat(rows)
+              .extracting(CucumberMigrationEstimate.Row::getSourcePath, CucumberMigrationEstimate.Row::isConvertible,
+                CucumberMigrationEstimate.Row::getOccurrences, CucumberMigrationEstimate.Row::getEstimatedEffortMinutes)
+              .containsExactlyInAnyOrder(
+                tuple("com/example/app/Convertible.java", true, 1, 15L),
+                tuple("com/example/app/Unconvertible.java", false, 2, 30L))),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.core.api.TypeRegistry;
+              import io.cucumber.core.api.TypeRegistryConfigurer;
+              import io.cucumber.cucumberexpressions.ParameterType;
+
+              public class Convertible implements TypeRegistryConfigurer {
+                  @Override
+                  public void configureTypeRegistry(TypeRegistry typeRegistry) {
+                      ParameterType<Integer> count = new ParameterType<>(
+                              "count", "[0-9]+", Integer.class, (String s) -> Integer.valueOf(s));
+                      typeRegistry.defineParameterType(count);
+                  }
+              }
+              """
+          ),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.core.api.TypeRegistry;
+              import io.cucumber.core.api.TypeRegistryConfigurer;
+              import io.cucumber.cucumberexpressions.ParameterType;
+
+              public class Unconvertible implements TypeRegistryConfigurer {
+                  @Override
+                  public void configureTypeRegistry(TypeRegistry typeRegistry) {
+                      typeRegistry.defineParameterType(new ParameterType<>(
+                              "count", "[0-9]+", Integer.class, (String s) -> Integer.valueOf(s)));
+                      System.out.println("registered");
+                  }
+              }
+              """
+          )
+        );
+    }
+}
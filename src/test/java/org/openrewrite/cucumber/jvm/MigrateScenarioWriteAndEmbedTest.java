@@ -72,6 +72,56 @@ class MigrateScenarioWriteAndEmbedTest implements RewriteTest {
             """));
     }
 
+    @Test
+    void migrateMethodReferences() {
+        // language=java
+        rewriteRun(java(
+          """
+            package com.example.app;
+
+            import io.cucumber.java.Scenario;
+            import io.cucumber.java.en.Given;
+
+            import java.util.function.Consumer;
+
+            class StepDefinitions {
+                @Given("a step")
+                void aStep(Scenario scenario) {
+                    Consumer<String> log = scenario::write;
+                    Attach attach = scenario::embed;
+                    log.accept("a message");
+                    attach.attach(new byte[0], "image/png", "a name");
+                }
+
+                interface Attach {
+                    void attach(byte[] data, String mediaType, String name);
+                }
+            }
+            """,
+          """
+            package com.example.app;
+
+            import io.cucumber.java.Scenario;
+            import io.cucumber.java.en.Given;
+
+            import java.util.function.Consumer;
+
+            class StepDefinitions {
+                @Given("a step")
+                void aStep(Scenario scenario) {
+                    Consumer<String> log = scenario::log;
+                    Attach attach = scenario::attach;
+                    log.accept("a message");
+                    attach.attach(new byte[0], "image/png", "a name");
+                }
+
+                interface Attach {
+                    void attach(byte[] data, String mediaType, String name);
+                }
+            }
+            """));
+    }
+
     @Test
     void migrateCucumberJava8Scenario() {
         // language=java
@@ -119,4 +169,28 @@ class MigrateScenarioWriteAndEmbedTest implements RewriteTest {
             }
             """));
     }
+
+    @Test
+    void retainWriteAndEmbedOfOtherTypes() {
+        // language=java
+        rewriteRun(java(
+          """
+            package com.example.app;
+
+            import io.cucumber.java.Scenario;
+
+            class StepDefinitions {
+                void aStep(Scenario scenario, Report report) {
+                    report.write(scenario.getName());
+                    report.embed(new byte[0], "image/png");
+                }
+
+                interface Report {
+                    void write(String text);
+
+                    void embed(byte[] data, String mediaType);
+                }
+            }
+            """));
+    }
 }
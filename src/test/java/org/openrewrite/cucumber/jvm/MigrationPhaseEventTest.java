@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.config.Environment;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class MigrationPhaseEventTest implements RewriteTest {
+
+    private static final String MIGRATION_PHASE = "org.openrewrite.cucumber.jvm.MigrationPhase";
+
+    @TempDir
+    Path recordingDirectory;
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(Environment.builder()
+            .scanRuntimeClasspath("org.openrewrite.cucumber.jvm")
+            .build().activateRecipes("org.openrewrite.cucumber.jvm.CucumberJava8ToJava"))
+          .parser(JavaParser.fromJavaVersion()
+            .classpathFromResources(new InMemoryExecutionContext(), "cucumber-java-7", "cucumber-java8-7"));
+    }
+
+    @Test
+    void loadTheFlightRecorderEvent() {
+        // The tests run on Java 11 or later, and with the multi-release classes on the classpath
+        assertThat(MigrationPhaseEvent.start(MigrationPhaseEvent.TEMPLATE_APPLICATION, "com.example.app.Steps"))
+          .isInstanceOf(jdk.jfr.Event.class);
+    }
+
+    @SuppressWarnings("CodeBlock2Expr")
+    @Test
+    void recordMigrationPhases() throws IOException {
+        Path dump = recordingDirectory.resolve("migration.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(MIGRATION_PHASE);
+            recording.start();
+            rewriteRun(
+              // language=java
+              java(
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java8.En;
+
+                  public class CalculatorStepDefinitions implements En {
+                      public CalculatorStepDefinitions() {
+                          Given("a calculator I just turned on", () -> {
+                          });
+                      }
+                  }
+                  """,
+                """
+                  package com.example.app;
+
+                  import io.cucumber.java.en.Given;
+
+                  public class CalculatorStepDefinitions {
+
+                      @Given("a calculator I just turned on")
+                      public void a_calculator_i_just_turned_on() {
+                      }
+                  }
+                  """
+              ));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertThat(events)
+          .filteredOn(event -> event.getEventType().getName().equals(MIGRATION_PHASE))
+          .filteredOn(event -> MigrationPhaseEvent.TEMPLATE_APPLICATION.equals(event.getString("phase")))
+          .anySatisfy(event -> {
+              assertThat(event.getString("subject")).isEqualTo("com.example.app.CalculatorStepDefinitions");
+              assertThat(event.getInt("count")).isEqualTo(1);
+          });
+        assertThat(events)
+          .filteredOn(event -> event.getEventType().getName().equals(MIGRATION_PHASE))
+          .filteredOn(event -> MigrationPhaseEvent.LAMBDA_GLUE_SCAN.equals(event.getString("phase")))
+          .extracting(event -> event.getString("subject"))
+          .contains("com/example/app/CalculatorStepDefinitions.java");
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.Value;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GeneratedSource;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GlueShape;
+import org.openrewrite.cucumber.jvm.table.CucumberRecipeRunMetrics;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the migrations over glue growing in size, doubling it twice, and fails where what a run allocates or does
+ * grows faster than declared for the dimension grown. Each run pays for the templates it compiles once, whatever the
+ * size, so it is the growth from one doubling to the next that is compared: twofold where the cost is linear in the
+ * size, and fourfold where it is quadratic, as one visit of the class for every lambda in it would be. What a run does
+ * is counted from its {@link CucumberRecipeRunMetrics}, rather than timed, so that a busy machine fails nothing.
+ */
+class MigrationScalingTest {
+
+    private static final SyntheticCorpus CORPUS = new SyntheticCorpus(42);
+
+    private static final String[] LAMBDA_GLUE_CLASSPATH = {"cucumber-java-7", "cucumber-java8-7", "datatable"};
+    private static final String[] TYPE_REGISTRY_CLASSPATH = {"cucumber-java-7", "cucumber-expressions",
+      "datatable", "docstring", "cucumber-core-6.11.0"};
+
+    /**
+     * Allocation hardly varies from one run to the next, so a linear cost stays well within half a degree of linear.
+     */
+    private static final double ALLOCATION_TOLERANCE = 0.5;
+
+    private static final int RUNS = 3;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void threads() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+          "Allocation is only measured on a JVM telling what each thread allocated");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+          "Allocation is only measured on a JVM telling what each thread allocated");
+    }
+
+    @Test
+    void cucumberJava8ToJavaIsLinearInLambdasPerClass() {
+        assertGrowth(cucumberJava8ToJava(), 1,
+          lambdas -> parse(CORPUS.lambdaGlue(2, lambdaGlueShape(lambdas)), LAMBDA_GLUE_CLASSPATH), 16);
+    }
+
+    @Test
+    void cucumberJava8ToJavaIsLinearInClasses() {
+        assertGrowth(cucumberJava8ToJava(), 1,
+          classes -> parse(CORPUS.lambdaGlue(classes, lambdaGlueShape(8)), LAMBDA_GLUE_CLASSPATH), 4);
+    }
+
+    @Test
+    void typeRegistryConfigurerToAnnotationsIsLinearInClasses() {
+        assertGrowth(new TypeRegistryConfigurerToAnnotations(), 1,
+          classes -> parse(CORPUS.typeRegistryConfigurers(classes, 8), TYPE_REGISTRY_CLASSPATH), 4);
+    }
+
+    /**
+     * Every new method is added by a context sensitive template, which is compiled against a stub of the class as it
+     * stands, growing with each method added before it; so quadratic is as good as this dimension gets.
+     */
+    @Test
+    void typeRegistryConfigurerToAnnotationsIsAtMostQuadraticInRegistrationsPerClass() {
+        assertGrowth(new TypeRegistryConfigurerToAnnotations(), 2,
+          registrations -> parse(CORPUS.typeRegistryConfigurers(2, registrations), TYPE_REGISTRY_CLASSPATH), 8);
+    }
+
+    private static Recipe cucumberJava8ToJava() {
+        return Environment.builder()
+          .scanRuntimeClasspath("org.openrewrite.cucumber.jvm")
+          .build()
+          .activateRecipes("org.openrewrite.cucumber.jvm.CucumberJava8ToJava");
+    }
+
+    /**
+     * A step for every other lambda, and the rest split between hooks and type definitions.
+     */
+    private static GlueShape lambdaGlueShape(int lambdas) {
+        return GlueShape.DEFAULT
+          .withSteps(lambdas / 2)
+          .withHooks(lambdas / 4)
+          .withTypeDefinitions(lambdas / 4);
+    }
+
+    /**
+     * @param degree the degree of the polynomial in the size the cost is to grow no faster than
+     * @param size   the smallest size to run at, which is then doubled twice over
+     */
+    private static void assertGrowth(Recipe recipe, int degree, IntFunction<List<SourceFile>> sourceFiles, int size) {
+        // Warm up, so that the first size measured does not also pay for loading and compiling the recipes
+        measure(recipe, sourceFiles.apply(size));
+
+        Cost small = measure(recipe, sourceFiles.apply(size));
+        Cost medium = measure(recipe, sourceFiles.apply(size * 2));
+        Cost large = measure(recipe, sourceFiles.apply(size * 4));
+
+        assertThat(growth(small.getAllocatedBytes(), medium.getAllocatedBytes(), large.getAllocatedBytes()))
+          .as("Growth in bytes allocated from %s to %s and %s", small, medium, large)
+          .isLessThanOrEqualTo(Math.pow(2, degree + ALLOCATION_TOLERANCE));
+        assertThat(growth(small.getWork(), medium.getWork(), large.getWork()))
+          .as("Growth in visits and template applications from %s to %s and %s", small, medium, large)
+          .isLessThanOrEqualTo(Math.pow(2, degree));
+    }
+
+    /**
+     * @return how much more the second doubling added than the first did
+     */
+    private static double growth(long small, long medium, long large) {
+        return (double) Math.max(0, large - medium) / Math.max(1, medium - small);
+    }
+
+    private static Cost measure(Recipe recipe, List<SourceFile> sourceFiles) {
+        long allocatedBytes = Long.MAX_VALUE;
+        long work = 0;
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < RUNS; i++) {
+            // A context of its own for every run, so that no run reuses the templates another compiled
+            ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to run the recipe", t));
+            ctx.putMessage(RecipeRunMetrics.ENABLED, true);
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            RecipeRun run = recipe.run(new InMemoryLargeSourceSet(sourceFiles), ctx);
+            allocatedBytes = Math.min(allocatedBytes, threads.getThreadAllocatedBytes(thread) - allocatedBefore);
+            assertThat(run.getChangeset().getAllResults())
+              .as("A run that changes nothing measures nothing")
+              .isNotEmpty();
+            // The same from one run to the next, unlike the time it takes
+            work = work(run);
+        }
+        return new Cost(allocatedBytes, work);
+    }
+
+    /**
+     * @return the visits of a source file by a recipe, and the templates applied and visitors scheduled in those
+     */
+    private static long work(RecipeRun run) {
+        List<CucumberRecipeRunMetrics.Row> rows = run.getDataTableRows(CucumberRecipeRunMetrics.class.getName());
+        assertThat(rows).as("A run that records no metrics measures nothing").isNotEmpty();
+        long work = 0;
+        for (CucumberRecipeRunMetrics.Row row : rows) {
+            work += 1 + row.getTemplateApplications() + row.getAfterVisitsScheduled();
+        }
+        return work;
+    }
+
+    private static List<SourceFile> parse(List<GeneratedSource> sources, String... classpath) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to parse the corpus", t));
+        return JavaParser.fromJavaVersion()
+          .classpathFromResources(ctx, classpath)
+          .build()
+          .parse(ctx, sources.stream().map(GeneratedSource::getText).toArray(String[]::new))
+          .collect(toList());
+    }
+
+    @Value
+    private static class Cost {
+        long allocatedBytes;
+        long work;
+    }
+}
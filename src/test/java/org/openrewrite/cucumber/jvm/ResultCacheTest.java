@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.openrewrite.java.Assertions.java;
+
+class ResultCacheTest implements RewriteTest {
+
+    // language=java
+    private static final String REGEX_STEP = """
+      package com.example.app;
+
+      import io.cucumber.java.en.Given;
+
+      class StepDefinitions {
+          @Given("^a step$")
+          void aStep() {
+          }
+      }
+      """;
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new RegexToCucumberExpression())
+          .parser(parser());
+    }
+
+    @Test
+    void recordFilesLeftUnchanged() throws IOException {
+        rewriteRun(
+          spec -> spec.executionContext(cachingContext(100)),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.java.en.Given;
+
+              class StepDefinitions {
+                  @Given("a step")
+                  void aStep() {
+                  }
+              }
+              """
+          ));
+        assertThat(entries()).isEqualTo(1);
+    }
+
+    @Test
+    void skipFilesLeftUnchangedBefore() {
+        ExecutionContext ctx = cachingContext(100);
+        SourceFile regexStep = parser().build().parse(ctx, REGEX_STEP).findFirst().orElseThrow();
+        ResultCache cache = ResultCache.of(ctx);
+        assertThat(cache).isNotNull();
+        String key = cache.key(new RegexToCucumberExpression(), regexStep);
+        assertThat(key).isNotNull();
+        cache.unchanged(key);
+
+        // As if a run before had left the regex alone, which it would not have
+        rewriteRun(
+          spec -> spec.executionContext(cachingContext(100)),
+          java(REGEX_STEP)
+        );
+    }
+
+    @Test
+    void keepFilesCompiledAgainstAnotherClasspathApart() {
+        ExecutionContext ctx = cachingContext(100);
+        SourceFile regexStep = parser().build().parse(ctx, REGEX_STEP).findFirst().orElseThrow();
+        JavaSourceSet main = JavaSourceSet.build("main", emptyList());
+        ResultCache cache = ResultCache.of(ctx);
+        assertThat(cache).isNotNull();
+
+        String key = cache.key(new RegexToCucumberExpression(), regexStep.withMarkers(regexStep.getMarkers()
+          .add(main.withClasspath(List.of(JavaType.ShallowClass.build("io.cucumber.java.en.Given"))))));
+        String upgradedKey = cache.key(new RegexToCucumberExpression(), regexStep.withMarkers(regexStep.getMarkers()
+          .add(main.withId(Tree.randomId()).withClasspath(List.of(
+            JavaType.ShallowClass.build("io.cucumber.java.en.Given"),
+            JavaType.ShallowClass.build("io.cucumber.java.en.Then"))))));
+        assertThat(key).isNotEqualTo(upgradedKey);
+    }
+
+    @Test
+    void keepConfigurationsOfARecipeApart() {
+        ExecutionContext ctx = cachingContext(100);
+        SourceFile regexStep = parser().build().parse(ctx, REGEX_STEP).findFirst().orElseThrow();
+        ResultCache cache = ResultCache.of(ctx);
+        assertThat(cache).isNotNull();
+
+        assertThat(cache.key(new CucumberJava8StepDefinitionToCucumberJava(), regexStep))
+          .isNotEqualTo(cache.key(new CucumberJava8StepDefinitionToCucumberJava("PT30S"), regexStep));
+    }
+
+    @Test
+    void useNoCacheWithoutAVersion() {
+        assumeThat(ResultCache.class.getPackage().getImplementationVersion()).isNull();
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        ctx.putMessage(ResultCache.DIRECTORY, cacheDirectory.toString());
+
+        assertThat(ResultCache.of(ctx)).isNull();
+    }
+
+    @Test
+    void evictDownToTheBound() throws IOException {
+        rewriteRun(
+          spec -> spec.executionContext(cachingContext(2)),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.java.en.Given;
+
+              class FirstSteps {
+                  @Given("a first step")
+                  void aStep() {
+                  }
+              }
+              """
+          ),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.java.en.Given;
+
+              class SecondSteps {
+                  @Given("a second step")
+                  void aStep() {
+                  }
+              }
+              """
+          ),
+          // language=java
+          java(
+            """
+              package com.example.app;
+
+              import io.cucumber.java.en.Given;
+
+              class ThirdSteps {
+                  @Given("a third step")
+                  void aStep() {
+                  }
+              }
+              """
+          ));
+        assertThat(entries()).isBetween(1L, 2L);
+    }
+
+    private static JavaParser.Builder<?, ?> parser() {
+        return JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(), "cucumber-java-7");
+    }
+
+    private ExecutionContext cachingContext(int maxEntries) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to run the recipe", t));
+        ctx.putMessage(ResultCache.DIRECTORY, cacheDirectory.toString());
+        ctx.putMessage(ResultCache.MAX_ENTRIES, maxEntries);
+        ctx.putMessage(ResultCache.VERSION, "test");
+        return ctx;
+    }
+
+    private long entries() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import lombok.Value;
+import lombok.With;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes out Cucumber sources of any size from nothing but their dimensions, so that the recipes can be run at the
+ * scale of a real repository without checking in fixtures to match. The same seed and dimensions always make for the
+ * same sources, down to the byte, so any difference between two runs over a corpus is down to the recipes.
+ * <p>
+ * Every source only names types from the type tables in the test resources, being:
+ * <ul>
+ *     <li>`cucumber-java-7` and `cucumber-java8-7` for the {@link #lambdaGlue lambda glue},</li>
+ *     <li>`cucumber-java-7`, `cucumber-expressions`, `datatable`, `docstring` and `cucumber-core-6.11.0` for the
+ *     {@link #typeRegistryConfigurers type registry configurers},</li>
+ *     <li>`cucumber-java-7` for the {@link #annotatedGlue annotated glue},</li>
+ *     <li>`cucumber-core-4.8.1`, `cucumber-java-4.8.1`, `cucumber-junit-4.8.1` and `cucumber-testng-4.8.1` for the
+ *     {@link #cucumberApi cucumber.api glue},</li>
+ *     <li>`cucumber-junit-5` and `cucumber-testng-5` for the {@link #cucumberOptionsRunners runners},</li>
+ *     <li>`cucumber-java-5` for the {@link #scenarioGlue glue writing to the scenario},</li>
+ *     <li>`cucumber-junit-platform-engine` for the {@link #junitPlatformRunners JUnit Platform runners},</li>
+ *     <li>`cucumber-plugin` for the {@link #summaryPrinters summary printers}.</li>
+ * </ul>
+ */
+class SyntheticCorpus {
+
+    private static final String[] STEP_KEYWORDS = {"Given", "When", "Then", "And", "But"};
+
+    private final long seed;
+
+    SyntheticCorpus(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * `cucumber-java8` glue, each class an `En` implementation registering everything from its constructor.
+     */
+    List<GeneratedSource> lambdaGlue(int classes, GlueShape shape) {
+        Random random = new Random(seed);
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.glue" + c % 10;
+            String className = "Glue" + c;
+            List<String> captured = new ArrayList<>();
+            StringBuilder constructorArguments = new StringBuilder();
+            for (int a = 0; a < shape.getCapturedArguments(); a++) {
+                constructorArguments.append(a == 0 ? "" : ", ").append("StringBuilder log").append(a);
+                captured.add("log" + a);
+            }
+
+            StringBuilder source = new StringBuilder()
+                    .append("package ").append(packageName).append(";\n\n")
+                    .append("import io.cucumber.java8.En;\n")
+                    .append("import io.cucumber.java8.Scenario;\n\n")
+                    .append("import java.util.Map;\n\n")
+                    .append("public class ").append(className).append(" implements En {\n")
+                    .append("    private int total;\n\n")
+                    .append("    public ").append(className).append('(').append(constructorArguments).append(") {\n");
+            for (int l = 0; l < shape.getCapturedLocals(); l++) {
+                source.append("        String prefix").append(l).append(" = \"").append(className).append('.')
+                        .append(l).append("\";\n");
+                captured.add("prefix" + l);
+            }
+
+            int registration = 0;
+            for (int s = 0; s < shape.getSteps(); s++, registration++) {
+                String keyword = STEP_KEYWORDS[random.nextInt(STEP_KEYWORDS.length)];
+                if (random.nextBoolean()) {
+                    source.append("        ").append(keyword).append("(\"step ").append(s).append(" of ")
+                            .append(className).append("\", () -> {\n")
+                            .append("            total++;\n");
+                } else {
+                    source.append("        ").append(keyword).append("(\"I add {int} in step ").append(s)
+                            .append(" of ").append(className).append("\", (Integer amount) -> {\n")
+                            .append("            total += amount;\n");
+                }
+                source.append(use(captured, registration)).append("        });\n");
+            }
+            for (int h = 0; h < shape.getHooks(); h++, registration++) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        source.append("        Before(").append(h + 1).append(", (Scenario scenario) -> {\n")
+                                .append("            scenario.log(\"before\");\n");
+                        break;
+                    case 1:
+                        source.append("        After(\"@tag").append(h).append("\", () -> {\n")
+                                .append("            total = 0;\n");
+                        break;
+                    default:
+                        source.append("        BeforeStep(\"@step").append(h).append("\", ").append(h + 1)
+                                .append(", () -> {\n")
+                                .append("            total--;\n");
+                        break;
+                }
+                source.append(use(captured, registration)).append("        });\n");
+            }
+            for (int t = 0; t < shape.getTypeDefinitions(); t++) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        source.append("        ParameterType(\"word").append(t)
+                                .append("\", \"[a-z]+\", (String word) -> word.trim());\n");
+                        break;
+                    case 1:
+                        source.append("        DataTableType((Map<String, String> entry) -> entry.get(\"name")
+                                .append(t).append("\"));\n");
+                        break;
+                    default:
+                        source.append("        DocStringType(\"text/plain").append(t)
+                                .append("\", (String docString) -> docString.length());\n");
+                        break;
+                }
+            }
+            for (int m = 0; m < shape.getMemberReferences(); m++) {
+                source.append("        ").append(STEP_KEYWORDS[random.nextInt(STEP_KEYWORDS.length)])
+                        .append("(\"I pick {int} by reference ").append(m).append(" of ").append(className)
+                        .append("\", this::pick").append(m).append(");\n");
+            }
+            source.append("    }\n");
+            for (int m = 0; m < shape.getMemberReferences(); m++) {
+                source.append("\n    private void pick").append(m).append("(Integer picked) {\n")
+                        .append("        total += picked;\n")
+                        .append("    }\n");
+            }
+            source.append("}\n");
+            sources.add(new GeneratedSource(javaPath(packageName, className), source.toString()));
+        }
+        return sources;
+    }
+
+    /**
+     * Glue reads the captured state round-robin, so that every argument and local is read by something, as long as
+     * there are as many registrations as there is state.
+     */
+    private static String use(List<String> captured, int registration) {
+        return captured.isEmpty() ? "" :
+                "            " + captured.get(registration % captured.size()) + ".length();\n";
+    }
+
+    /**
+     * `TypeRegistryConfigurer` implementations, alternating `ParameterType` and `DataTableType` registrations.
+     */
+    List<GeneratedSource> typeRegistryConfigurers(int classes, int registrationsPerClass) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.types" + c % 10;
+            String className = "Configurer" + c;
+            StringBuilder source = new StringBuilder()
+                    .append("package ").append(packageName).append(";\n\n")
+                    .append("import io.cucumber.core.api.TypeRegistry;\n")
+                    .append("import io.cucumber.core.api.TypeRegistryConfigurer;\n")
+                    .append("import io.cucumber.cucumberexpressions.ParameterType;\n")
+                    .append("import io.cucumber.datatable.DataTableType;\n\n")
+                    .append("import java.util.Locale;\n")
+                    .append("import java.util.Map;\n\n")
+                    .append("public class ").append(className).append(" implements TypeRegistryConfigurer {\n")
+                    .append("    @Override\n")
+                    .append("    public Locale locale() {\n")
+                    .append("        return Locale.ENGLISH;\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public void configureTypeRegistry(TypeRegistry typeRegistry) {\n");
+            for (int r = 0; r < registrationsPerClass; r++) {
+                source.append(r % 2 == 0 ?
+                        "        typeRegistry.defineParameterType(new ParameterType<>(\n" +
+                        "                \"word" + r + "\", \"[a-z]+\", String.class, (String s) -> s.trim()));\n" :
+                        "        typeRegistry.defineDataTableType(new DataTableType(\n" +
+                        "                Integer.class, (Map<String, String> entry) -> entry.size() + " + r + "));\n");
+            }
+            source.append("    }\n}\n");
+            sources.add(new GeneratedSource(javaPath(packageName, className), source.toString()));
+        }
+        return sources;
+    }
+
+    /**
+     * `cucumber-java` glue, about half of its steps annotated with an anchored regular expression there is a
+     * Cucumber Expression for, and the rest with one capturing a group, which leaves them as they are.
+     */
+    List<GeneratedSource> annotatedGlue(int classes, int stepsPerClass) {
+        Random random = new Random(seed);
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.steps" + c % 10;
+            String className = "Steps" + c;
+            StringBuilder source = new StringBuilder()
+                    .append("package ").append(packageName).append(";\n\n")
+                    .append("import io.cucumber.java.en.Given;\n\n")
+                    .append("public class ").append(className).append(" {\n");
+            for (int s = 0; s < stepsPerClass; s++) {
+                boolean capturing = random.nextBoolean();
+                source.append(s == 0 ? "" : "\n")
+                        .append(capturing ?
+                                "    @Given(\"^step (\\\\d+) of " + className + " " + s + "$\")\n" :
+                                "    @Given(\"^step " + s + " of " + className + "$\")\n")
+                        .append("    public void step").append(s).append(capturing ? "(int n) {\n" : "() {\n")
+                        .append("    }\n");
+            }
+            source.append("}\n");
+            sources.add(new GeneratedSource(javaPath(packageName, className), source.toString()));
+        }
+        return sources;
+    }
+
+    /**
+     * Cucumber-JVM 4.x glue and runners, naming the `cucumber.api` types that moved in 5.0.0.
+     */
+    List<GeneratedSource> cucumberApi(int classes) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.api" + c % 10;
+            String className = "Api" + c;
+            String source = "package " + packageName + ";\n\n" +
+                    "import cucumber.api.CucumberOptions;\n" +
+                    "import cucumber.api.PendingException;\n" +
+                    "import cucumber.api.Scenario;\n" +
+                    "import cucumber.api.java.After;\n" +
+                    "import cucumber.api.java.Before;\n" +
+                    "import cucumber.api.java.en.Given;\n\n" +
+                    "@CucumberOptions(features = \"classpath:features\", strict = true)\n" +
+                    "public class " + className + " {\n" +
+                    "    @Before\n" +
+                    "    public void before(Scenario scenario) {\n" +
+                    "        scenario.write(\"" + className + "\");\n" +
+                    "    }\n\n" +
+                    "    @After(timeout = 1000)\n" +
+                    "    public void after() {\n" +
+                    "    }\n\n" +
+                    "    @Given(\"a step in " + className + "\")\n" +
+                    "    public void aStep() {\n" +
+                    "        throw new PendingException();\n" +
+                    "    }\n" +
+                    "}\n";
+            sources.add(new GeneratedSource(javaPath(packageName, className), source));
+        }
+        return sources;
+    }
+
+    /**
+     * Cucumber-JVM 5.x runners, alternately JUnit and TestNG, with the `strict` option and the array of tags that 6.0.0
+     * removed.
+     */
+    List<GeneratedSource> cucumberOptionsRunners(int classes) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.runners" + c % 10;
+            String className = "RunCucumber" + c + "Test";
+            String source = "package " + packageName + ";\n\n" +
+                    "import io.cucumber." + (c % 2 == 0 ? "junit" : "testng") + ".CucumberOptions;\n\n" +
+                    "@CucumberOptions(features = \"classpath:features/" + c + "\", strict = true, " +
+                    "tags = {\"@smoke\", \"not @wip\"})\n" +
+                    "public class " + className + " {\n" +
+                    "}\n";
+            sources.add(new GeneratedSource(javaPath(packageName, className), source));
+        }
+        return sources;
+    }
+
+    /**
+     * Cucumber-JVM 5.x glue writing and embedding into the `Scenario`, as 6.0.0 replaced with `log` and `attach`.
+     */
+    List<GeneratedSource> scenarioGlue(int classes) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.scenario" + c % 10;
+            String className = "ScenarioSteps" + c;
+            String source = "package " + packageName + ";\n\n" +
+                    "import io.cucumber.java.Scenario;\n" +
+                    "import io.cucumber.java.en.Given;\n\n" +
+                    "public class " + className + " {\n" +
+                    "    @Given(\"a step in " + className + "\")\n" +
+                    "    public void aStep(Scenario scenario) {\n" +
+                    "        scenario.write(\"" + className + "\");\n" +
+                    "        scenario.embed(new byte[0], \"image/png\", \"" + className + "\");\n" +
+                    "    }\n" +
+                    "}\n";
+            sources.add(new GeneratedSource(javaPath(packageName, className), source));
+        }
+        return sources;
+    }
+
+    /**
+     * JUnit Platform runners annotated with `@Cucumber`, which the `@Suite` of JUnit Platform replaces.
+     */
+    List<GeneratedSource> junitPlatformRunners(int classes) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.platform" + c % 10;
+            String className = "RunCucumber" + c + "Test";
+            String source = "package " + packageName + ";\n\n" +
+                    "import io.cucumber.junit.platform.engine.Cucumber;\n\n" +
+                    "@Cucumber\n" +
+                    "public class " + className + " {\n" +
+                    "}\n";
+            sources.add(new GeneratedSource(javaPath(packageName, className), source));
+        }
+        return sources;
+    }
+
+    /**
+     * Plugins implementing the `SummaryPrinter` marker interface that 7.0.0 deprecated.
+     */
+    List<GeneratedSource> summaryPrinters(int classes) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.plugins" + c % 10;
+            String className = "Summary" + c;
+            String source = "package " + packageName + ";\n\n" +
+                    "import io.cucumber.plugin.SummaryPrinter;\n\n" +
+                    "public class " + className + " implements SummaryPrinter {\n" +
+                    "}\n";
+            sources.add(new GeneratedSource(javaPath(packageName, className), source));
+        }
+        return sources;
+    }
+
+    /**
+     * A `cucumber.properties` file with `cucumber.options` for every module.
+     */
+    List<GeneratedSource> cucumberProperties(int modules) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int m = 0; m < modules; m++) {
+            String module = "module" + m;
+            sources.add(new GeneratedSource(Paths.get(module, "src/test/resources/cucumber.properties"),
+                    "cucumber.options=--glue com.example." + module + " --plugin pretty " +
+                    "--tags \"@integration and not @wip\" --monochrome\n"));
+        }
+        return sources;
+    }
+
+    /**
+     * A pom for every module, passing `cucumber.options` to Surefire; none have dependencies, so that they resolve
+     * without a repository to download from.
+     */
+    List<GeneratedSource> poms(int modules) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int m = 0; m < modules; m++) {
+            String module = "module" + m;
+            sources.add(new GeneratedSource(Paths.get(module, "pom.xml"),
+                    "<project>\n" +
+                    "  <modelVersion>4.0.0</modelVersion>\n" +
+                    "  <groupId>com.example</groupId>\n" +
+                    "  <artifactId>" + module + "</artifactId>\n" +
+                    "  <version>1.0.0</version>\n" +
+                    "  <build>\n" +
+                    "    <plugins>\n" +
+                    "      <plugin>\n" +
+                    "        <groupId>org.apache.maven.plugins</groupId>\n" +
+                    "        <artifactId>maven-surefire-plugin</artifactId>\n" +
+                    "        <configuration>\n" +
+                    "          <systemPropertyVariables>\n" +
+                    "            <cucumber.options>--glue com.example." + module + " --plugin pretty</cucumber.options>\n" +
+                    "          </systemPropertyVariables>\n" +
+                    "        </configuration>\n" +
+                    "      </plugin>\n" +
+                    "    </plugins>\n" +
+                    "  </build>\n" +
+                    "</project>\n"));
+        }
+        return sources;
+    }
+
+    /**
+     * A pom for every module, depending on Cucumber-JVM 1.x under `info.cukes`; unlike {@link #poms}, these take a
+     * repository to resolve from.
+     */
+    List<GeneratedSource> infoCukesPoms(int modules) {
+        List<GeneratedSource> sources = new ArrayList<>();
+        for (int m = 0; m < modules; m++) {
+            String module = "module" + m;
+            sources.add(new GeneratedSource(Paths.get(module, "pom.xml"),
+                    "<project>\n" +
+                    "  <modelVersion>4.0.0</modelVersion>\n" +
+                    "  <groupId>com.example</groupId>\n" +
+                    "  <artifactId>" + module + "</artifactId>\n" +
+                    "  <version>1.0.0</version>\n" +
+                    "  <dependencies>\n" +
+                    "    <dependency>\n" +
+                    "      <groupId>info.cukes</groupId>\n" +
+                    "      <artifactId>" + (m % 2 == 0 ? "cucumber-junit" : "cucumber-java") + "</artifactId>\n" +
+                    "      <version>1.2.5</version>\n" +
+                    "      <scope>test</scope>\n" +
+                    "    </dependency>\n" +
+                    "  </dependencies>\n" +
+                    "</project>\n"));
+        }
+        return sources;
+    }
+
+    private static Path javaPath(String packageName, String className) {
+        return Paths.get("src/test/java", packageName.replace('.', '/'), className + ".java");
+    }
+
+    /**
+     * What each generated `En` implementation registers.
+     */
+    @Value
+    @With
+    static class GlueShape {
+        static final GlueShape DEFAULT = new GlueShape(4, 2, 1, 1, 1, 1);
+
+        int steps;
+        int hooks;
+        int typeDefinitions;
+
+        /**
+         * Steps registered as a reference to a method of the glue class, rather than as a lambda.
+         */
+        int memberReferences;
+
+        /**
+         * Constructor arguments and locals the step and hook lambdas read, which migrating them has to turn into
+         * fields.
+         */
+        int capturedArguments;
+        int capturedLocals;
+    }
+
+    @Value
+    static class GeneratedSource {
+        Path path;
+        String text;
+    }
+}
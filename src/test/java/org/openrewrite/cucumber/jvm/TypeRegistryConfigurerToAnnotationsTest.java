@@ -19,10 +19,16 @@ import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.Issue;
+import org.openrewrite.SourceFile;
+import org.openrewrite.cucumber.jvm.CucumberSourceClassification.Kind;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 
 class TypeRegistryConfigurerToAnnotationsTest implements RewriteTest {
@@ -960,4 +966,36 @@ class TypeRegistryConfigurerToAnnotationsTest implements RewriteTest {
               """
           ));
     }
+
+    @Test
+    void classifyClassesImplementingItThroughATypeOfTheProjectsOwn() {
+        //language=java
+        List<SourceFile> sourceFiles = JavaParser.fromJavaVersion()
+          .classpathFromResources(new InMemoryExecutionContext(), "cucumber-core-6.11.0")
+          .build()
+          .parse(
+            """
+              package com.example.app;
+
+              import io.cucumber.core.api.TypeRegistryConfigurer;
+
+              public abstract class BaseConfigurer implements TypeRegistryConfigurer {
+              }
+              """,
+            """
+              package com.example.app;
+
+              import io.cucumber.core.api.TypeRegistry;
+
+              public class ProjectConfigurer extends BaseConfigurer {
+                  @Override
+                  public void configureTypeRegistry(TypeRegistry typeRegistry) {
+                  }
+              }
+              """
+          )
+          .collect(toList());
+        assertThat(CucumberSourceClassification.of(sourceFiles.get(1), new InMemoryExecutionContext()))
+          .contains(Kind.TYPE_REGISTRY_CONFIGURER);
+    }
 }
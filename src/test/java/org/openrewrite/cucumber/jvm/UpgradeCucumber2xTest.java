@@ -18,10 +18,12 @@ package org.openrewrite.cucumber.jvm;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.Issue;
+import org.openrewrite.maven.tree.MavenResolutionResult;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
 import static org.openrewrite.maven.Assertions.pomXml;
+import static org.openrewrite.test.SourceSpecs.text;
 
 @Issue("https://github.com/openrewrite/rewrite-cucumber-jvm/issues/39")
 class UpgradeCucumber2xTest implements RewriteTest {
@@ -81,6 +83,45 @@ class UpgradeCucumber2xTest implements RewriteTest {
           ));
     }
 
+    @Test
+    void changeManagedArtifacts() {
+        rewriteRun(
+          pomXml(
+            """
+              <project>
+                  <groupId>com.example</groupId>
+                  <artifactId>app</artifactId>
+                  <version>1.0.0</version>
+                  <dependencyManagement>
+                      <dependencies>
+                          <dependency>
+                              <groupId>info.cukes</groupId>
+                              <artifactId>cucumber-java</artifactId>
+                              <version>1.2.5</version>
+                          </dependency>
+                      </dependencies>
+                  </dependencyManagement>
+              </project>
+              """,
+            """
+              <project>
+                  <groupId>com.example</groupId>
+                  <artifactId>app</artifactId>
+                  <version>1.0.0</version>
+                  <dependencyManagement>
+                      <dependencies>
+                          <dependency>
+                              <groupId>io.cucumber</groupId>
+                              <artifactId>cucumber-java</artifactId>
+                              <version>2.4.0</version>
+                          </dependency>
+                      </dependencies>
+                  </dependencyManagement>
+              </project>
+              """
+          ));
+    }
+
     @Test
     void leaveArtifactsWithoutA2xReleaseAlone() {
         rewriteRun(
@@ -108,4 +149,106 @@ class UpgradeCucumber2xTest implements RewriteTest {
               """
           ));
     }
+
+    @Test
+    void leaveFilesWithoutAResolvedBuildAlone() {
+        rewriteRun(
+          text(
+            """
+              <project>
+                  <dependencies>
+                      <dependency>
+                          <groupId>info.cukes</groupId>
+                          <artifactId>cucumber-java</artifactId>
+                          <version>1.2.5</version>
+                      </dependency>
+                  </dependencies>
+              </project>
+              """,
+            spec -> spec.path("src/test/resources/pom.xml")
+          ));
+    }
+
+    @Test
+    void moveArtifactsAlongsideOnesThatDidNotMove() {
+        rewriteRun(
+          pomXml(
+            """
+              <project>
+                  <groupId>com.example</groupId>
+                  <artifactId>app</artifactId>
+                  <version>1.0.0</version>
+                  <dependencies>
+                      <dependency>
+                          <groupId>info.cukes</groupId>
+                          <artifactId>cucumber-java</artifactId>
+                          <version>1.2.5</version>
+                          <scope>test</scope>
+                      </dependency>
+                      <dependency>
+                          <groupId>info.cukes</groupId>
+                          <artifactId>cucumber-junit</artifactId>
+                          <version>1.2.5</version>
+                          <scope>test</scope>
+                      </dependency>
+                      <dependency>
+                          <groupId>info.cukes</groupId>
+                          <artifactId>cucumber-pro</artifactId>
+                          <version>1.0.16</version>
+                          <scope>test</scope>
+                      </dependency>
+                  </dependencies>
+              </project>
+              """,
+            """
+              <project>
+                  <groupId>com.example</groupId>
+                  <artifactId>app</artifactId>
+                  <version>1.0.0</version>
+                  <dependencies>
+                      <dependency>
+                          <groupId>io.cucumber</groupId>
+                          <artifactId>cucumber-java</artifactId>
+                          <version>2.4.0</version>
+                          <scope>test</scope>
+                      </dependency>
+                      <dependency>
+                          <groupId>io.cucumber</groupId>
+                          <artifactId>cucumber-junit</artifactId>
+                          <version>2.4.0</version>
+                          <scope>test</scope>
+                      </dependency>
+                      <dependency>
+                          <groupId>info.cukes</groupId>
+                          <artifactId>cucumber-pro</artifactId>
+                          <version>1.0.16</version>
+                          <scope>test</scope>
+                      </dependency>
+                  </dependencies>
+              </project>
+              """
+          ));
+    }
+
+    @Test
+    void leaveBuildFilesWithoutAResolutionMarkerAlone() {
+        rewriteRun(
+          pomXml(
+            """
+              <project>
+                  <groupId>com.example</groupId>
+                  <artifactId>app</artifactId>
+                  <version>1.0.0</version>
+                  <dependencies>
+                      <dependency>
+                          <groupId>info.cukes</groupId>
+                          <artifactId>cucumber-java</artifactId>
+                          <version>1.2.5</version>
+                      </dependency>
+                  </dependencies>
+              </project>
+              """,
+            spec -> spec.mapBeforeRecipe(pom -> pom.withMarkers(pom.getMarkers().removeByType(MavenResolutionResult.class)))
+          ));
+    }
 }
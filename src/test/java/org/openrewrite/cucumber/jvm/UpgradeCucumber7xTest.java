@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.cucumber.jvm;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GeneratedSource;
+import org.openrewrite.cucumber.jvm.SyntheticCorpus.GlueShape;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Every cycle runs every recipe of the upgrade over every file again, which on a large repository is the bulk of
+ * what the upgrade costs; so each kind of glue is to be upgraded in full in the first cycle, with nothing left for a
+ * second to change.
+ */
+class UpgradeCucumber7xTest {
+
+    private static final SyntheticCorpus CORPUS = new SyntheticCorpus(42);
+
+    private static final int MAX_CYCLES = 3;
+
+    @Test
+    void lambdaGlueInOneCycle() {
+        assertThat(cyclesToConverge(parse(CORPUS.lambdaGlue(5, GlueShape.DEFAULT),
+          "cucumber-java-7", "cucumber-java8-7", "datatable"))).isEqualTo(1);
+    }
+
+    @Test
+    void typeRegistryConfigurersInOneCycle() {
+        assertThat(cyclesToConverge(parse(CORPUS.typeRegistryConfigurers(5, 4),
+          "cucumber-java-7", "cucumber-expressions", "datatable", "docstring", "cucumber-core-6.11.0"))).isEqualTo(1);
+    }
+
+    @Test
+    void regularExpressionStepsInOneCycle() {
+        assertThat(cyclesToConverge(parse(CORPUS.annotatedGlue(5, 4), "cucumber-java-7"))).isEqualTo(1);
+    }
+
+    @Test
+    void cucumberApiGlueInOneCycle() {
+        assertThat(cyclesToConverge(parse(CORPUS.cucumberApi(5),
+          "cucumber-core-4.8.1", "cucumber-java-4.8.1", "cucumber-junit-4.8.1", "cucumber-testng-4.8.1"))).isEqualTo(1);
+    }
+
+    /**
+     * @return the number of cycles after which running the upgrade for one more cycle changes nothing more
+     */
+    private static int cyclesToConverge(List<SourceFile> sourceFiles) {
+        Recipe upgrade = Environment.builder()
+          .scanRuntimeClasspath("org.openrewrite.cucumber.jvm")
+          .build()
+          .activateRecipes("org.openrewrite.cucumber.jvm.UpgradeCucumber7x");
+        Map<Path, String> previous = printed(sourceFiles, null);
+        for (int cycles = 1; cycles <= MAX_CYCLES; cycles++) {
+            ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to run the recipe", t));
+            Map<Path, String> upgraded = printed(sourceFiles,
+              upgrade.run(new InMemoryLargeSourceSet(sourceFiles), ctx, cycles, 1));
+            if (upgraded.equals(previous)) {
+                return cycles - 1;
+            }
+            previous = upgraded;
+        }
+        return fail("Still changing after %d cycles", MAX_CYCLES);
+    }
+
+    private static Map<Path, String> printed(List<SourceFile> sourceFiles, @Nullable RecipeRun run) {
+        Map<Path, String> printed = new HashMap<>();
+        for (SourceFile sourceFile : sourceFiles) {
+            printed.put(sourceFile.getSourcePath(), sourceFile.printAll());
+        }
+        if (run != null) {
+            for (Result result : run.getChangeset().getAllResults()) {
+                if (result.getBefore() != null) {
+                    printed.remove(result.getBefore().getSourcePath());
+                }
+                if (result.getAfter() != null) {
+                    printed.put(result.getAfter().getSourcePath(), result.getAfter().printAll());
+                }
+            }
+        }
+        return printed;
+    }
+
+    private static List<SourceFile> parse(List<GeneratedSource> sources, String... classpath) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> fail("Failed to parse the corpus", t));
+        return JavaParser.fromJavaVersion()
+          .classpathFromResources(ctx, classpath)
+          .build()
+          .parse(ctx, sources.stream().map(GeneratedSource::getText).toArray(String[]::new))
+          .collect(toList());
+    }
+}